@@ -0,0 +1,34 @@
+package animalchess.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, so that allocation rates are reported alongside times.
+ * Accepts the usual JMH command line options, e.g. a regular expression selecting benchmarks.
+ * @version 1
+ */
+public class BenchmarkRunner {
+
+    /**
+     * Private constructor because BenchmarkRunner only has a main method.
+     */
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * Runs the benchmarks.
+     * @param args of type String[], JMH command line options.
+     * @throws Exception if the options cannot be parsed or a benchmark fails.
+     */
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
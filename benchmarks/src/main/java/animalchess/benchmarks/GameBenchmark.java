@@ -0,0 +1,60 @@
+package animalchess.benchmarks;
+
+import animalchess.Game;
+import animalchess.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of constructing a Game, i.e. buildGameBoard and Square.fillSquare, of resetting one, and of
+ * Game.getWinner.
+ * @version 1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameBenchmark {
+    private final Player p0 = new Player("Player 0", 0);
+    private final Player p1 = new Player("Player 1", 1);
+    private final Game game = new Game(p0, p1);
+
+    /**
+     * Benchmark of new Game(p0, p1).
+     * @return game of type Game
+     */
+    @Benchmark
+    public Game newGame() {
+        return new Game(p0, p1);
+    }
+
+    /**
+     * Benchmark of Game.reset, the alternative to constructing a new Game.
+     * @return game of type Game
+     */
+    @Benchmark
+    public Game reset() {
+        game.reset();
+        return game;
+    }
+
+    /**
+     * Benchmark of Game.getWinner on an ongoing Game.
+     * @return winner of type Player, null
+     */
+    @Benchmark
+    public Player getWinner() {
+        return game.getWinner();
+    }
+}
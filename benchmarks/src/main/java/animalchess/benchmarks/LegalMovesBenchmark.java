@@ -0,0 +1,86 @@
+package animalchess.benchmarks;
+
+import animalchess.Game;
+import animalchess.MoveGenerator;
+import animalchess.Piece;
+import animalchess.Player;
+import animalchess.Position;
+import animalchess.Square;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of getLegalMoves for each kind of Piece in the starting position, and of MoveGenerator generating
+ * every move of the side to move for comparison.
+ * @version 1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LegalMovesBenchmark {
+    private final Game game = new Game(new Player("Player 0", 0), new Player("Player 1", 1));
+    private final Piece chick = game.getSquare(2, 2).getPiece();
+    private final Piece cat = game.getSquare(0, 0).getPiece();
+    private final Piece dog = game.getSquare(0, 1).getPiece();
+    private final Piece lion = game.getSquare(0, 2).getPiece();
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+    /**
+     * Benchmark of Chick.getLegalMoves.
+     * @return legalMoves of type ArrayList<Square>
+     */
+    @Benchmark
+    public ArrayList<Square> chickLegalMoves() {
+        return chick.getLegalMoves();
+    }
+
+    /**
+     * Benchmark of Cat.getLegalMoves.
+     * @return legalMoves of type ArrayList<Square>
+     */
+    @Benchmark
+    public ArrayList<Square> catLegalMoves() {
+        return cat.getLegalMoves();
+    }
+
+    /**
+     * Benchmark of Dog.getLegalMoves.
+     * @return legalMoves of type ArrayList<Square>
+     */
+    @Benchmark
+    public ArrayList<Square> dogLegalMoves() {
+        return dog.getLegalMoves();
+    }
+
+    /**
+     * Benchmark of Lion.getLegalMoves.
+     * @return legalMoves of type ArrayList<Square>
+     */
+    @Benchmark
+    public ArrayList<Square> lionLegalMoves() {
+        return lion.getLegalMoves();
+    }
+
+    /**
+     * Benchmark of MoveGenerator.generateAll for every Piece of the side to move.
+     * @return count of type int
+     */
+    @Benchmark
+    public int generateAll() {
+        Position position = game.getPosition();
+        return MoveGenerator.generateAll(position, position.getSideToMove(), moves, 0);
+    }
+}
@@ -0,0 +1,110 @@
+package animalchess.benchmarks;
+
+import animalchess.Game;
+import animalchess.Moves;
+import animalchess.Piece;
+import animalchess.Player;
+import animalchess.Position;
+import animalchess.Square;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of moves: Piece.move without a capture, and a capture and a drop made through Game.makeMove, which
+ * calls Piece.move and Player.dropPiece. Every benchmark takes its move back, so that each invocation starts from
+ * the same position; a capture or drop can only be taken back with Game.unmakeMove, so those two benchmarks time
+ * makeMove's legality check and unmakeMove as well.
+ * @version 1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveBenchmark {
+
+    /**
+     * The starting position, with Player 0's Lion free to step forwards and back.
+     */
+    @State(Scope.Thread)
+    public static class QuietState {
+        final Game game = new Game(new Player("Player 0", 0), new Player("Player 1", 1));
+        final Piece lion = game.getSquare(0, 2).getPiece();
+        final Square home = game.getSquare(0, 2);
+        final Square forwards = game.getSquare(1, 2);
+    }
+
+    /**
+     * The starting position, where Player 0's middle Chick can capture Player 1's.
+     */
+    @State(Scope.Thread)
+    public static class CaptureState {
+        final Game game = new Game(new Player("Player 0", 0), new Player("Player 1", 1));
+        final int capture = Moves.move(Position.index(2, 2), Position.index(3, 2), false);
+    }
+
+    /**
+     * The position after Player 0's middle Chick has captured Player 1's and Player 1's Lion has stepped forwards,
+     * with Player 0 to move and the Chick in hand.
+     */
+    @State(Scope.Thread)
+    public static class DropState {
+        final Game game = new Game(new Player("Player 0", 0), new Player("Player 1", 1));
+        final int drop = Moves.drop(Position.CHICK, Position.index(2, 2));
+
+        /**
+         * A constructor for DropState, which makes the capture and Player 1's reply as moves of the Game.
+         */
+        public DropState() {
+            game.makeMove(Moves.move(Position.index(2, 2), Position.index(3, 2), false));
+            game.makeMove(Moves.move(Position.index(5, 2), Position.index(4, 2), false));
+        }
+    }
+
+    /**
+     * Benchmark of two Piece.move calls without a capture: the Lion steps forwards and back.
+     * @param state of type QuietState
+     * @return lion of type Piece
+     */
+    @Benchmark
+    public Piece moveWithoutCapture(QuietState state) {
+        state.lion.move(state.forwards);
+        state.lion.move(state.home);
+        return state.lion;
+    }
+
+    /**
+     * Benchmark of a capture made with Game.makeMove, which checks it and calls Piece.move, and taken back with
+     * Game.unmakeMove.
+     * @param state of type CaptureState
+     * @return game of type Game
+     */
+    @Benchmark
+    public Game makeAndUnmakeCapture(CaptureState state) {
+        state.game.makeMove(state.capture);
+        state.game.unmakeMove();
+        return state.game;
+    }
+
+    /**
+     * Benchmark of a drop made with Game.makeMove, which checks it and calls Player.dropPiece, and taken back with
+     * Game.unmakeMove.
+     * @param state of type DropState
+     * @return game of type Game
+     */
+    @Benchmark
+    public Game makeAndUnmakeDrop(DropState state) {
+        state.game.makeMove(state.drop);
+        state.game.unmakeMove();
+        return state.game;
+    }
+}
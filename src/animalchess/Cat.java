@@ -17,6 +17,15 @@ public class Cat extends PromotablePiece {
         super(owner, square);
     }
 
+    /**
+     * Override of getKind in superclass Piece.
+     * @return Position.CAT
+     */
+    @Override
+    int getKind() {
+        return Position.CAT;
+    }
+
     /**
      * Override of getUnpromotedMoves in superclass PromotablePiece. If promoted, Cat behaves like Dog.
      * @returnlegalMoves of type ArrayList<Square>, legal next moves for a Piece.
@@ -0,0 +1,166 @@
+package animalchess;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A class for broadcasting a Game's changes as compact binary frames, one per move, take-back or reset. A frame
+ * holds only what changed since the previous one, found by comparing consecutive GameSnapshots bitboard by bitboard,
+ * and is encoded once into a reusable direct ByteBuffer that every Listener can write to its channels as it is.
+ * <p>
+ * A frame is, big-endian: the long version of the snapshot it brings a spectator up to; a status byte, with the
+ * side to move in bit 0, the draw in bit 1 and the winner's playerNumber plus one in bits 2 and 3; a byte n and n
+ * pairs of bytes, a Square's index and its new Piece (see pieceCode); a byte m and m pairs of bytes, a hand
+ * (owner * 4 + kind) and its new count. A spectator who starts from a GameSnapshot with version v applies the frames
+ * from version v + 1 on, and can tell it missed one from a gap in the versions.
+ * @version 1
+ */
+public class ChangeFeed {
+    // Version, status, both counts, every Square and every hand: far more than a move can change.
+    static final int MAX_FRAME = 8 + 1 + 1 + 2 * Position.SQUARES + 1 + 2 * 2 * Position.KINDS;
+
+    /**
+     * An interface for a subscriber to a ChangeFeed.
+     */
+    public interface Listener {
+        /**
+         * A method called on the thread making the moves with each frame. The buffer is reused for the next frame,
+         * so it must be written out or copied before returning.
+         * @param frame of type ByteBuffer, positioned at the frame's start with its limit at the frame's end.
+         */
+        void changed(ByteBuffer frame);
+    }
+
+    private final ByteBuffer frame = ByteBuffer.allocateDirect(MAX_FRAME);
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * A method to subscribe to this feed. May be called from any thread.
+     * @param listener of type Listener
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * A method to unsubscribe from this feed. May be called from any thread.
+     * @param listener of type Listener
+     */
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * A method called by Game each time it publishes a GameSnapshot, to encode the change and pass it on. A
+     * Listener that throws is removed, so that it can neither fail the move being made nor keep the other Listeners
+     * from their frames.
+     * @param previous of type GameSnapshot, or null if there was none.
+     * @param current of type GameSnapshot
+     */
+    void publish(GameSnapshot previous, GameSnapshot current) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        frame.clear();
+        encode(previous, current, frame);
+        int length = frame.position();
+        for (Listener listener : listeners) {
+            frame.limit(length).position(0);
+            try {
+                listener.changed(frame);
+            }
+            catch (RuntimeException e) {
+                listeners.remove(listener);
+            }
+        }
+    }
+
+    /**
+     * A method to encode the change from one GameSnapshot to the next.
+     * @param previous of type GameSnapshot, or null to encode everything against an empty board.
+     * @param current of type GameSnapshot
+     * @param into of type ByteBuffer, with at least MAX_FRAME bytes remaining.
+     */
+    public static void encode(GameSnapshot previous, GameSnapshot current, ByteBuffer into) {
+        into.putLong(current.getVersion());
+        into.put((byte) (current.getSideToMove() | (current.isDraw() ? 2 : 0) | (current.getWinner() + 1) << 2));
+
+        int changed = current.changedSquares(previous);
+        into.put((byte) Integer.bitCount(changed));
+        for (; changed != 0; changed &= changed - 1) {
+            int index = Integer.numberOfTrailingZeros(changed);
+            into.put((byte) index);
+            into.put((byte) pieceCode(current.kindAt(index), current.ownerAt(index), current.isPromoted(index)));
+        }
+
+        int countAt = into.position();
+        into.put((byte) 0);
+        int hands = 0;
+        for (int owner = 0; owner < 2; owner++) {
+            int hand = current.getHand(owner);
+            int difference = hand ^ (previous == null ? 0 : previous.getHand(owner));
+            for (int kind = 0; kind < Position.KINDS; kind++) {
+                if ((difference >>> (kind << 2) & 0xF) != 0) {
+                    into.put((byte) (owner * Position.KINDS + kind));
+                    into.put((byte) (hand >>> (kind << 2) & 0xF));
+                    hands++;
+                }
+            }
+        }
+        into.put(countAt, (byte) hands);
+    }
+
+    /**
+     * A method to apply a frame to a Position, e.g. a spectator's copy of the Game. The Position must hold the state
+     * of the frame's previous version.
+     * @param frame of type ByteBuffer, positioned at the frame's start; it is read to the frame's end.
+     * @param into of type Position
+     * @return version of type long, the version the Position now holds.
+     */
+    public static long apply(ByteBuffer frame, Position into) {
+        long version = frame.getLong();
+        int status = frame.get();
+        into.setSideToMove(status & 1);
+        into.setWinner((status >>> 2 & 3) - 1);
+
+        for (int n = frame.get(); n > 0; n--) {
+            int index = frame.get();
+            int code = frame.get();
+            if (into.isOccupied(index)) {
+                into.clear(index);
+            }
+            if (code != 0) {
+                into.put(index, (code & 7) - 1, code >>> 4 & 1, (code & 8) != 0);
+            }
+        }
+        for (int m = frame.get(); m > 0; m--) {
+            int hand = frame.get();
+            int owner = hand / Position.KINDS;
+            int kind = hand % Position.KINDS;
+            int count = frame.get();
+            while (into.getHandCount(owner, kind) < count) {
+                into.addToHand(owner, kind);
+            }
+            while (into.getHandCount(owner, kind) > count) {
+                into.removeFromHand(owner, kind);
+            }
+        }
+        return version;
+    }
+
+    /**
+     * A method to encode the Piece on a Square as a byte: 0 for an empty Square, otherwise the kind plus one in
+     * bits 0 to 2, promoted in bit 3 and the owner's playerNumber in bit 4.
+     * @param kind of type int denotes the kind of Piece, or -1 for an empty Square.
+     * @param owner of type int denotes the owner's playerNumber.
+     * @param promoted of type boolean, true if the Piece is promoted.
+     * @return code of type int
+     */
+    public static int pieceCode(int kind, int owner, boolean promoted) {
+        if (kind < 0) {
+            return 0;
+        }
+        return (kind + 1) | (promoted ? 8 : 0) | owner << 4;
+    }
+}
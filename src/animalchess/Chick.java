@@ -17,6 +17,15 @@ public class Chick extends PromotablePiece {
         super(owner, square);
     }
 
+    /**
+     * Override of getKind in superclass Piece.
+     * @return Position.CHICK
+     */
+    @Override
+    int getKind() {
+        return Position.CHICK;
+    }
+
     /**
      * Override of getUnpromotedMoves in superclass PromotablePiece. If promoted, Chick behaves like Dog.
      * @returnlegalMoves of type ArrayList<Square>, legal next moves for a Piece.
@@ -17,6 +17,15 @@ public class Dog extends Piece {
         super(owner, square);
     }
 
+    /**
+     * Override of getKind in superclass Piece.
+     * @return Position.DOG
+     */
+    @Override
+    int getKind() {
+        return Position.DOG;
+    }
+
     /** Override of getLegalMoves in superclass Piece.
      * @return legalMoves of type ArrayList<Square>, the legal moves for a Piece.
      */
@@ -0,0 +1,168 @@
+package animalchess;
+
+/**
+ * A class for the static evaluation of a Position, in centi-Chicks from the point of view of the side to move.
+ * <p>
+ * Material and piece-square values are summed per side by Position itself as Pieces are put, cleared, captured
+ * and dropped, so they cost nothing to read. Mobility and Lion safety are read off the attack counts Position
+ * also keeps up to date, so evaluating is a handful of bit counts whatever the position.
+ * @version 1
+ */
+public final class Evaluation {
+    // Material values, indexed by kind.
+    static final int[] PIECE_VALUES = {100, 300, 400, 0};
+    static final int PROMOTED_VALUE = 450;
+    static final int HAND_BONUS = 20;
+
+    private static final int MOBILITY = 4;
+    // Per opponent attack on a Square next to the Lion, and for the side to move's Lion being attacked.
+    private static final int LION_ZONE_ATTACK = 12;
+    private static final int LION_IN_DANGER = 60;
+
+    // Positional bonuses from Player 0's point of view, indexed by Position.index(row, col) with Player 0 starting
+    // on row 0. A Chick is worth more the nearer it is to promotion; the others prefer the middle; the Lion prefers
+    // to stay at home.
+    private static final int[] CHICK_BONUS = {
+            0, 0, 0, 0, 0,
+            0, 0, 0, 0, 0,
+            0, 4, 6, 4, 0,
+            6, 10, 14, 10, 6,
+            14, 18, 22, 18, 14,
+            0, 0, 0, 0, 0,
+    };
+    private static final int[] PIECE_BONUS = {
+            -10, -4, 0, -4, -10,
+            -4, 4, 8, 4, -4,
+            0, 8, 12, 8, 0,
+            0, 8, 12, 8, 0,
+            -4, 4, 8, 4, -4,
+            -10, -4, 0, -4, -10,
+    };
+    private static final int[] LION_BONUS = {
+            10, 14, 20, 14, 10,
+            6, 10, 14, 10, 6,
+            0, 2, 4, 2, 0,
+            -10, -8, -6, -8, -10,
+            -20, -18, -16, -18, -20,
+            -30, -28, -26, -28, -30,
+    };
+
+    // Value of a Piece on a Square, indexed by ((kind * 2 + promoted) * 2 + owner) * SQUARES + index.
+    private static final int[] PIECE_SQUARE = new int[Position.KINDS * 2 * 2 * Position.SQUARES];
+    // Value of the Pieces of one kind in hand, indexed by kind * MAX_HAND_COUNT + count. Each further Piece of a
+    // kind in hand adds a little less, since only one can be dropped at a time.
+    private static final int[] HAND = new int[Position.KINDS * Zobrist.MAX_HAND_COUNT];
+
+    static {
+        for (int kind = 0; kind < Position.KINDS; kind++) {
+            for (int promoted = 0; promoted < 2; promoted++) {
+                for (int owner = 0; owner < 2; owner++) {
+                    for (int index = 0; index < Position.SQUARES; index++) {
+                        // Player 1's tables are Player 0's upside down.
+                        int own = owner == 0 ? index
+                                : Position.index(Game.HEIGHT - 1 - Position.row(index), Position.col(index));
+                        int value;
+                        if (promoted == 1) {
+                            value = PROMOTED_VALUE + PIECE_BONUS[own];
+                        }
+                        else if (kind == Position.CHICK) {
+                            value = PIECE_VALUES[kind] + CHICK_BONUS[own];
+                        }
+                        else if (kind == Position.LION) {
+                            value = LION_BONUS[own];
+                        }
+                        else {
+                            value = PIECE_VALUES[kind] + PIECE_BONUS[own];
+                        }
+                        PIECE_SQUARE[tableIndex(kind, promoted == 1, owner) + index] = value;
+                    }
+                }
+            }
+            // A captured Lion ends the Game, so it has no value in hand.
+            for (int count = 1; count < Zobrist.MAX_HAND_COUNT && kind != Position.LION; count++) {
+                HAND[kind * Zobrist.MAX_HAND_COUNT + count] = HAND[kind * Zobrist.MAX_HAND_COUNT + count - 1]
+                        + PIECE_VALUES[kind] + HAND_BONUS / count;
+            }
+        }
+    }
+
+    /**
+     * Private constructor because Evaluation only has static methods.
+     */
+    private Evaluation() {
+    }
+
+    /**
+     * A method to get the start of a Piece's row of PIECE_SQUARE.
+     * @param kind of type int denotes the kind of Piece.
+     * @param promoted of type boolean, true if the Piece is promoted.
+     * @param owner of type int denotes the owner's playerNumber.
+     * @return index of type int
+     */
+    private static int tableIndex(int kind, boolean promoted, int owner) {
+        return ((kind << 1 | (promoted ? 1 : 0)) << 1 | owner) * Position.SQUARES;
+    }
+
+    /**
+     * A getter for the value of a Piece on a Square, used by Position to keep its sums up to date.
+     * @param kind of type int denotes the kind of Piece.
+     * @param promoted of type boolean, true if the Piece is promoted.
+     * @param owner of type int denotes the owner's playerNumber.
+     * @param index of type int denotes the Square's bit index.
+     * @return value of type int
+     */
+    static int pieceSquare(int kind, boolean promoted, int owner, int index) {
+        return PIECE_SQUARE[tableIndex(kind, promoted, owner) + index];
+    }
+
+    /**
+     * A getter for the value of a number of Pieces of one kind in hand.
+     * @param kind of type int denotes the kind of Piece.
+     * @param count of type int denotes the number in hand.
+     * @return value of type int
+     */
+    static int hand(int kind, int count) {
+        return HAND[kind * Zobrist.MAX_HAND_COUNT + count];
+    }
+
+    /**
+     * A method to evaluate a Position.
+     * @param position of type Position
+     * @return score of type int, positive if the side to move is better off.
+     */
+    public static int evaluate(Position position) {
+        int side = position.getSideToMove();
+        int score = position.getMaterialScore(side) - position.getMaterialScore(1 - side)
+                + sideTerms(position, side) - sideTerms(position, 1 - side);
+        if (position.isLionInDanger(side)) {
+            score -= LION_IN_DANGER;
+        }
+        return score;
+    }
+
+    /**
+     * A method to evaluate a Game's position.
+     * @param game of type Game
+     * @return score of type int, positive if the Player to move is better off.
+     */
+    public static int evaluate(Game game) {
+        return evaluate(game.getPosition());
+    }
+
+    /**
+     * A method for the mobility and Lion safety of one side.
+     * @param position of type Position
+     * @param side of type int denotes the side's playerNumber.
+     * @return score of type int
+     */
+    private static int sideTerms(Position position, int side) {
+        int attacks = position.getAttacks(side);
+        int score = MOBILITY * Integer.bitCount(attacks & ~position.getOwnerMask(side));
+        int lion = position.getKindMask(Position.LION) & position.getOwnerMask(side);
+        if (lion != 0) {
+            int zone = MoveGenerator.attacks(Position.LION, false, side, Integer.numberOfTrailingZeros(lion));
+            score -= LION_ZONE_ATTACK * Integer.bitCount(zone & position.getAttacks(1 - side) & ~attacks);
+        }
+        return score;
+    }
+}
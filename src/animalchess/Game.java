@@ -1,5 +1,6 @@
 package animalchess;
 
+import java.util.Arrays;
 
 /**
  * A class for the Shogi Game.
@@ -8,9 +9,67 @@ package animalchess;
 public class Game {
     static final int HEIGHT = 6;
     static final int WIDTH = 5;
+    // The number of times a position must occur for the Game to be drawn by repetition (sennichite).
+    public static final int REPETITIONS_FOR_DRAW = 4;
+    // The number of positions remembered for repetitions, a power of two.
+    static final int HISTORY = 256;
+    static final int NO_REPETITION = -1;
+    static final int REPETITION_DRAW = 2;
+
+    // The starting layout, indexed by Position.index(row, col): the kind of Piece, or -1, and its owner.
+    private static final int[] START_KINDS = new int[HEIGHT * WIDTH];
+    private static final int[] START_OWNERS = new int[HEIGHT * WIDTH];
+    // The starting Position, copied by reset instead of placing each Piece again.
+    private static final Position START_POSITION = new Position();
+
+    static {
+        int[] backRank = {Position.CAT, Position.DOG, Position.LION, Position.DOG, Position.CAT};
+        Arrays.fill(START_KINDS, -1);
+        for (int col = 0; col < WIDTH; col++) {
+            // Player 0 starts on rows 0 and 2, Player 1 on rows 5 and 3.
+            setStart(0, col, backRank[col], 0);
+            setStart(HEIGHT - 1, col, backRank[col], 1);
+        }
+        for (int col = 1; col < WIDTH - 1; col++) {
+            setStart(2, col, Position.CHICK, 0);
+            setStart(3, col, Position.CHICK, 1);
+        }
+    }
 
     private Player p0, p1;
-    private Square[][] gameBoard; // List not ArrayList because immutable
+    // Flat, indexed by Position.index(row, col), so a lookup is a single array access.
+    private Square[] gameBoard; // List not ArrayList because immutable
+    // Bitboard view of the gameBoard, kept in sync by Square.setPiece.
+    private Position position;
+
+    // The Pieces created by buildGameBoard, indexed by their starting Square's Position.index, so that reset can
+    // put them back rather than create new ones.
+    private Piece[] startPieces = new Piece[HEIGHT * WIDTH];
+
+    // Undo records of the moves made with makeMove, see Undo.
+    private long[] undoStack = new long[64];
+    private int undoCount;
+
+    // Ring buffer of the hashes of the positions since the Game started, indexed by ply & (HISTORY - 1), and of
+    // whether the move into each of them attacked the opponent's Lion.
+    private final long[] hashHistory = new long[HISTORY];
+    private final boolean[] checkHistory = new boolean[HISTORY];
+    private int historyCount;
+    // The oldest ply still in hashHistory. It never goes down, since unmakeMove cannot bring back an overwritten
+    // entry.
+    private int historyFloor;
+    // NO_REPETITION, REPETITION_DRAW, or the playerNumber of the winner when a repetition came from continuous
+    // checks by the other Player.
+    private int repetition = NO_REPETITION;
+
+    // The latest immutable copy of the Game's state for other threads, see GameSnapshot. Only the thread making
+    // moves writes it.
+    private volatile GameSnapshot snapshot;
+    private long snapshotVersion;
+    // Where each new snapshot's changes are broadcast, or null.
+    private ChangeFeed changeFeed;
+    // True while makeMove is applying a move, so that the snapshot is published only once the undo record is pushed.
+    private boolean makingMove;
 
     /**
      * A constructor for the class Game.
@@ -21,7 +80,8 @@ public class Game {
         this.p0 = p0;
         this.p1 = p1;
 
-        this.gameBoard = new Square[HEIGHT][WIDTH];
+        this.position = new Position();
+        this.gameBoard = new Square[HEIGHT * WIDTH];
         buildGameBoard();
     }
 
@@ -29,19 +89,117 @@ public class Game {
      * A method to build the gameBoard for a Game.
      */
     public void buildGameBoard() {
+        position.clearAll();
+        undoCount = 0;
         for (int i = 0; i < HEIGHT; i++) {
             for (int j = 0; j < WIDTH; j++) {
                 if (i < 2) {
-                    gameBoard[i][j] = new Square(this, i, j, p1);
+                    gameBoard[Position.index(i, j)] = new Square(this, i, j, p1);
                 }
                 else if (i > 3) {
-                    gameBoard[i][j] = new Square(this, i, j, p0);
+                    gameBoard[Position.index(i, j)] = new Square(this, i, j, p0);
                 }
                 else {
-                    gameBoard[i][j] = new Square(this, i, j);
+                    gameBoard[Position.index(i, j)] = new Square(this, i, j);
                 }
             }
         }
+        for (int index = 0; index < HEIGHT * WIDTH; index++) {
+            startPieces[index] = gameBoard[index].getPiece();
+            // A Square only writes to the Position once it is on the gameBoard, so its Piece is written here.
+            gameBoard[index].syncPosition();
+        }
+        clearHistory();
+    }
+
+    /**
+     * A method to record one Piece of the starting layout.
+     * @param row of type int denotes the row.
+     * @param col of type int denotes the column.
+     * @param kind of type int denotes the kind of Piece.
+     * @param owner of type int denotes the owner's playerNumber.
+     */
+    private static void setStart(int row, int col, int kind, int owner) {
+        int index = Position.index(row, col);
+        START_KINDS[index] = kind;
+        START_OWNERS[index] = owner;
+        START_POSITION.put(index, kind, owner, false);
+    }
+
+    /**
+     * A getter for the kind of Piece a Square starts with.
+     * @param index of type int denotes the Square's bit index.
+     * @return kind of type int, or -1 if the Square starts empty.
+     */
+    static int startKind(int index) {
+        return START_KINDS[index];
+    }
+
+    /**
+     * A getter for the owner of the Piece a Square starts with.
+     * @param index of type int denotes the Square's bit index.
+     * @return playerNumber of type int
+     */
+    static int startOwner(int index) {
+        return START_OWNERS[index];
+    }
+
+    /**
+     * A method to overwrite a Position with the starting position.
+     * @param into of type Position denotes the Position to be overwritten.
+     */
+    static void copyStartPosition(Position into) {
+        into.copyFrom(START_POSITION);
+    }
+
+    /**
+     * A method to restore the starting position without allocating, reusing this Game's Squares and Pieces.
+     * Hands are emptied and the winner cleared, and the moves made so far can no longer be taken back.
+     */
+    public void reset() {
+        for (Square square : gameBoard) {
+            square.restorePiece(null);
+        }
+        for (int index = 0; index < HEIGHT * WIDTH; index++) {
+            Piece piece = startPieces[index];
+            if (piece == null) {
+                continue;
+            }
+            // With no Square, neither setter touches the Position, which is restored below in one go.
+            piece.setSquare(null);
+            piece.setOwner(getPlayer(START_OWNERS[index]));
+            if (piece instanceof PromotablePiece) {
+                ((PromotablePiece) piece).setPromoted(false);
+            }
+            piece.setSquare(gameBoard[index]);
+            gameBoard[index].restorePiece(piece);
+        }
+        p0.reset();
+        p1.reset();
+        position.copyFrom(START_POSITION);
+        undoCount = 0;
+        clearHistory();
+    }
+
+    /**
+     * A method to restore the starting position for two new Players, e.g. to reuse a Game from a GamePool. The
+     * changeFeed is dropped, since its listeners belong to the previous match.
+     * @param p0 of type Player represents Player 1.
+     * @param p1 of type Player represents Player 2.
+     */
+    public void reset(Player p0, Player p1) {
+        this.p0 = p0;
+        this.p1 = p1;
+        this.changeFeed = null;
+        for (Square square : gameBoard) {
+            if (square.getRow() < 2) {
+                square.setPromotesPlayer(p1);
+            }
+            else if (square.getRow() > 3) {
+                square.setPromotesPlayer(p0);
+            }
+        }
+        reset();
     }
 
     /**
@@ -65,7 +223,8 @@ public class Game {
 
     /**
      * A method to get a Game's winner
-     * @return Player p0 if they have won, Player p1 if they have won or null if Game is ongoing.
+     * @return Player p0 if they have won, Player p1 if they have won or null if Game is ongoing. A Player also
+     * wins when the opponent repeats a position REPETITIONS_FOR_DRAW times by checking on every move.
      */
     public Player getWinner() {
         // hasWon returns boolean, so - when called on a Player - can be used as condition in itself.
@@ -75,11 +234,146 @@ public class Game {
         else if (p1.hasWon()) {
             return p1;
         }
+        else if (repetition == 0 || repetition == 1) {
+            return getPlayer(repetition);
+        }
         else {
             return null;
         }
     }
 
+    /**
+     * A method to assert whether a Game is drawn by repetition: the same position, with the same Player to move
+     * and the same hands, has occurred REPETITIONS_FOR_DRAW times, not by continuous checks.
+     * @return true if the Game is drawn.
+     */
+    public boolean isDraw() {
+        return repetition == REPETITION_DRAW;
+    }
+
+    /**
+     * A method to count how many times the current position has occurred, including now. Only the last HISTORY
+     * positions at most are remembered.
+     * @return count of type int, at least 1.
+     */
+    public int getRepetitionCount() {
+        long hash = hashHistory[(historyCount - 1) & (HISTORY - 1)];
+        int count = 1;
+        for (int ply = historyCount - 3; ply >= historyFloor; ply -= 2) {
+            if (hashHistory[ply & (HISTORY - 1)] == hash) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * A method to forget every position but the current one, for the start of a Game.
+     */
+    private void clearHistory() {
+        historyCount = 0;
+        historyFloor = 0;
+        recordPosition(false);
+    }
+
+    /**
+     * A method to add the current position to the history and check it for a repetition.
+     * @param check of type boolean, true if the move into the position attacked the opponent's Lion.
+     */
+    private void recordPosition(boolean check) {
+        hashHistory[historyCount & (HISTORY - 1)] = position.getHash();
+        checkHistory[historyCount & (HISTORY - 1)] = check;
+        historyCount++;
+        historyFloor = Math.max(historyFloor, historyCount - HISTORY);
+        repetition = findRepetition(hashHistory, checkHistory, historyCount, historyFloor,
+                position.getSideToMove());
+        if (!makingMove) {
+            publishSnapshot();
+        }
+    }
+
+    /**
+     * A method to publish a GameSnapshot of the current state, once a move, take-back or reset is complete, and
+     * broadcast what changed to the changeFeed.
+     */
+    private void publishSnapshot() {
+        int winner = position.getWinner();
+        if (winner < 0 && repetition != REPETITION_DRAW) {
+            winner = repetition;
+        }
+        GameSnapshot previous = snapshot;
+        snapshot = new GameSnapshot(snapshotVersion++, position, winner, repetition == REPETITION_DRAW);
+        if (changeFeed != null) {
+            changeFeed.publish(previous, snapshot);
+        }
+    }
+
+    /**
+     * A standard setter for changeFeed, which then receives a frame with every new GameSnapshot. reset(Player,
+     * Player) sets it back to null, so that a Game reused from a GamePool does not broadcast to the previous
+     * match's listeners.
+     * @param changeFeed of type ChangeFeed, or null to stop broadcasting.
+     */
+    public void setChangeFeed(ChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+    /**
+     * A getter for the latest GameSnapshot, which any thread may call while moves are being made, without locking.
+     * @return snapshot of type GameSnapshot
+     */
+    public GameSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * A method to judge the current position by the rules on repetition. Only positions with the same Player to
+     * move, every other one, are compared. A Player who checked on every move since the previous occurrence loses.
+     * SelfPlay judges its games with it too.
+     * @param hashHistory of type long[] denotes the ring buffer of hashes, HISTORY long, indexed by ply.
+     * @param checkHistory of type boolean[] denotes whether the move into each ply attacked the opponent's Lion.
+     * @param historyCount of type int denotes the number of plies recorded, the current position last.
+     * @param historyFloor of type int denotes the oldest ply still in the ring buffers.
+     * @param sideToMove of type int denotes the playerNumber of the Player to move in the current position.
+     * @return repetition of type int, NO_REPETITION, REPETITION_DRAW or the winner's playerNumber.
+     */
+    static int findRepetition(long[] hashHistory, boolean[] checkHistory, int historyCount, int historyFloor,
+            int sideToMove) {
+        int last = historyCount - 1;
+        long hash = hashHistory[last & (HISTORY - 1)];
+        int count = 1;
+        int previous = -1;
+        for (int ply = last - 2; ply >= historyFloor; ply -= 2) {
+            if (hashHistory[ply & (HISTORY - 1)] == hash) {
+                count++;
+                if (previous < 0) {
+                    previous = ply;
+                }
+            }
+        }
+        if (count < REPETITIONS_FOR_DRAW) {
+            return NO_REPETITION;
+        }
+        // Moves into plies last, last - 2, ... were made by the Player not to move now.
+        boolean lastMoverChecked = true;
+        boolean otherChecked = true;
+        for (int ply = last; ply > previous; ply--) {
+            if (!checkHistory[ply & (HISTORY - 1)]) {
+                if (((last - ply) & 1) == 0) {
+                    lastMoverChecked = false;
+                }
+                else {
+                    otherChecked = false;
+                }
+            }
+        }
+        int lastMover = 1 - sideToMove;
+        if (lastMoverChecked) {
+            return 1 - lastMover;
+        }
+        return otherChecked ? lastMover : REPETITION_DRAW;
+    }
+
     /**
      * A method to get a Game's Square given coordinates.
      * @param row of type int denotes the gameBoard's y coordinate or row.
@@ -87,7 +381,216 @@ public class Game {
      * @return gameBoard, 2d array of Squares
      */
     public Square getSquare(int row, int col) {
-        return gameBoard[row][col];
+        if (!hasSquare(row, col)) {
+            throw new ArrayIndexOutOfBoundsException("There is no square at " + row + ", " + col + ".");
+        }
+        return gameBoard[Position.index(row, col)];
+    }
+
+    /**
+     * A method to get a Game's Square given its bit index.
+     * @param index of type int denotes the Square's bit index, see Position.index.
+     * @return square of type Square
+     */
+    Square getSquare(int index) {
+        return gameBoard[index];
+    }
+
+    /**
+     * A standard getter for position.
+     * @return position of type Position, the bitboard view of the gameBoard.
+     */
+    public Position getPosition() {
+        return position;
+    }
+
+    /**
+     * A method to get the Zobrist hash of this Game's position, see Position.getHash.
+     * @return hash of type long
+     */
+    public long getHash() {
+        return position.getHash();
+    }
+
+    /**
+     * A method to assert whether a Player could move a Piece to a Square, were it empty. The answer is kept up to
+     * date move by move in the Position, see Position.isAttacked.
+     * @param square of type Square denotes the Square.
+     * @param player of type Player denotes the attacking Player.
+     * @return true if at least one of the Player's Pieces attacks the Square.
+     */
+    public boolean isAttacked(Square square, Player player) {
+        return position.isAttacked(square.getIndex(), player.getPlayerNumber());
+    }
+
+    /**
+     * A method to assert whether a Player's Lion could be captured by the opponent's next move.
+     * @param player of type Player denotes the Lion's owner.
+     * @return true if the opponent attacks the Lion.
+     */
+    public boolean isLionInDanger(Player player) {
+        return position.isLionInDanger(player.getPlayerNumber());
+    }
+
+    /**
+     * A method to get the Player whose turn it is. Player 0 moves first, after that it is whoever did not
+     * make the last move.
+     * @return player of type Player
+     */
+    public Player getPlayerToMove() {
+        return getPlayer(position.getSideToMove());
+    }
+
+    /**
+     * A method called by Piece.move and Player.dropPiece after a move has been made on this Game's gameBoard. It
+     * records the new position for the rules on repetition.
+     * @param mover of type Player denotes the Player who made the move.
+     */
+    void moveMade(Player mover) {
+        position.setSideToMove(1 - mover.getPlayerNumber());
+        recordPosition(position.isLionInDanger(1 - mover.getPlayerNumber()));
+    }
+
+    /**
+     * A method to make an encoded move (see Moves) for the Player to move, through Piece.move and
+     * Player.dropPiece. An undo record is pushed so that unmakeMove can take the move back, and only then is the
+     * new GameSnapshot published. No move may be made once the Game is drawn or won by repetition.
+     * @param move of type int denotes the move.
+     */
+    public void makeMove(int move) {
+        if (repetition != NO_REPETITION) {
+            throw new IllegalStateException("The game is over.");
+        }
+        int side = position.getSideToMove();
+        if (!MoveGenerator.isLegal(position, side, move)) {
+            throw new IllegalArgumentException("This move is not legal.");
+        }
+        Player mover = getPlayer(side);
+        Square toSquare = gameBoard[Moves.to(move)];
+        long undo = undoRecord(move);
+
+        makingMove = true;
+        try {
+            if (Moves.isDrop(move)) {
+                mover.dropPiece(mover.getHand().get(Undo.handIndex(undo)), toSquare);
+            }
+            else {
+                gameBoard[Moves.from(move)].getPiece().move(toSquare);
+            }
+        }
+        finally {
+            makingMove = false;
+        }
+
+        pushUndo(undo);
+        publishSnapshot();
+    }
+
+    /**
+     * A method to build the undo record of a move for the Player to move, before the move is made.
+     * @param move of type int denotes the move, see Moves.
+     * @return undo of type long, see Undo.
+     */
+    long undoRecord(int move) {
+        int side = position.getSideToMove();
+        if (Moves.isDrop(move)) {
+            int handIndex = getPlayer(side).lastIndexInHand(Moves.dropKind(move));
+            if (handIndex < 0) {
+                throw new IllegalStateException("There is no such piece in hand.");
+            }
+            return Undo.pack(move, -1, false, false, position.getWinner(), side, handIndex);
+        }
+        Piece piece = gameBoard[Moves.from(move)].getPiece();
+        Piece captured = gameBoard[Moves.to(move)].getPiece();
+        return Undo.pack(move, captured == null ? -1 : captured.getKind(),
+                captured != null && captured.isPromoted(), piece.isPromoted(), position.getWinner(), side, 0);
+    }
+
+    /**
+     * A method to push the undo record of a move that has been made, so that unmakeMove can take it back.
+     * @param undo of type long denotes the record from undoRecord.
+     */
+    void pushUndo(long undo) {
+        if (undoCount == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoCount * 2);
+        }
+        undoStack[undoCount++] = undo;
+    }
+
+    /**
+     * A method to take back the last move made with makeMove, restoring the Pieces, hands, promotions and winner.
+     */
+    public void unmakeMove() {
+        if (undoCount == 0) {
+            throw new IllegalStateException("There is no move to take back.");
+        }
+        long undo = undoStack[--undoCount];
+        int move = Undo.move(undo);
+        int side = Undo.side(undo);
+        Player mover = getPlayer(side);
+        Square toSquare = gameBoard[Moves.to(move)];
+        Piece piece = toSquare.getPiece();
+        toSquare.removePiece();
+
+        if (Moves.isDrop(move)) {
+            mover.returnToHand(Undo.handIndex(undo), piece);
+            position.addToHand(side, piece.getKind());
+        }
+        else {
+            if (piece instanceof PromotablePiece) {
+                ((PromotablePiece) piece).setPromoted(Undo.moverPromoted(undo));
+            }
+            gameBoard[Moves.from(move)].placePiece(piece);
+
+            if (Undo.capturedKind(undo) >= 0) {
+                // The captured Piece is the last one added to the capturer's hand.
+                Piece captured = mover.removeLastFromHand();
+                position.removeFromHand(side, captured.getKind());
+                captured.setOwner(getPlayer(1 - side));
+                if (captured instanceof PromotablePiece) {
+                    ((PromotablePiece) captured).setPromoted(Undo.capturedPromoted(undo));
+                }
+                toSquare.placePiece(captured);
+                if (captured instanceof Lion) {
+                    mover.setWon(false);
+                }
+            }
+        }
+        position.setWinner(Undo.winner(undo));
+        position.setSideToMove(side);
+        historyCount--;
+        repetition = findRepetition(hashHistory, checkHistory, historyCount, historyFloor,
+                position.getSideToMove());
+        publishSnapshot();
+    }
+
+    /**
+     * A getter for the number of moves that can be taken back with unmakeMove.
+     * @return undoCount of type int
+     */
+    public int getUndoCount() {
+        return undoCount;
+    }
+
+    /**
+     * A method to assert whether every move since the Game started or was reset was made with makeMove, and so can
+     * be read back with getMove. A move made straight through Piece.move or Player.dropPiece is not recorded there.
+     * @return true if getUndoCount counts every move made.
+     */
+    public boolean isFullyRecorded() {
+        return historyCount - 1 == undoCount;
+    }
+
+    /**
+     * A getter for a move made with makeMove since the Game started or was reset.
+     * @param ply of type int denotes the move's number, starting at 0, less than getUndoCount.
+     * @return move of type int, see Moves.
+     */
+    public int getMove(int ply) {
+        if (ply < 0 || ply >= undoCount) {
+            throw new IndexOutOfBoundsException("There is no move " + ply + ".");
+        }
+        return Undo.move(undoStack[ply]);
     }
 
     /**
@@ -0,0 +1,199 @@
+package animalchess;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A class for reading a file written by GameArchiveWriter. The whole file is mapped into memory with
+ * FileChannel.map, so looking a game up by id, or finding the games that reached a position by its hash, reads the
+ * fixed-size index entries in place, without copying or scanning the archive. The file is mapped in chunks of
+ * CHUNK_BYTES, so archives larger than 2 GB work. Safe to use from many threads.
+ * @version 1
+ */
+public class GameArchive implements Closeable {
+    // A whole number of index entries, so that no entry straddles two chunks.
+    private static final int CHUNK_BITS = 30;
+    private static final long CHUNK_BYTES = 1L << CHUNK_BITS;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] chunks;
+    private final long gameCount;
+    private final long gameIndexOffset;
+    private final long hashIndexOffset;
+    private final long hashEntries;
+
+    /**
+     * A constructor for the class GameArchive, which maps the file.
+     * @param path of type Path denotes the archive file.
+     * @throws IOException if the file cannot be read or is not an archive.
+     */
+    public GameArchive(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        long size = channel.size();
+        this.chunks = new MappedByteBuffer[(int) ((size + CHUNK_BYTES - 1) >>> CHUNK_BITS)];
+        for (int i = 0; i < chunks.length; i++) {
+            long start = (long) i << CHUNK_BITS;
+            chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(CHUNK_BYTES, size - start));
+        }
+        if (size < GameArchiveWriter.HEADER_BYTES || getLong(0) != GameArchiveWriter.MAGIC) {
+            channel.close();
+            throw new IOException("This is not a game archive.");
+        }
+        this.gameCount = getLong(8);
+        this.gameIndexOffset = getLong(16);
+        this.hashIndexOffset = getLong(24);
+        this.hashEntries = getLong(32);
+    }
+
+    /**
+     * A standard getter for gameCount.
+     * @return gameCount of type long, the number of games in the archive.
+     */
+    public long getGameCount() {
+        return gameCount;
+    }
+
+    /**
+     * A method to replay a game of the archive into a Game, see GameRecordReader.readGame.
+     * @param id of type long denotes the game's id, as returned by GameArchiveWriter.addGame.
+     * @param game of type Game denotes the Game to replay into.
+     * @throws IOException if the record is malformed.
+     */
+    public void readGame(long id, Game game) throws IOException {
+        if (id < 0 || id >= gameCount) {
+            throw new IndexOutOfBoundsException("There is no game " + id + ".");
+        }
+        long entry = gameIndexOffset + id * GameArchiveWriter.ENTRY_BYTES;
+        try (GameRecordReader reader = new GameRecordReader(new MappedInputStream(getLong(entry),
+                getLong(entry + 8)))) {
+            reader.readGame(game);
+        }
+    }
+
+    /**
+     * A method to find the games that reached a position, by binary search of the position index.
+     * @param hash of type long denotes the position's Position.getHash.
+     * @param ids of type long[] is filled with the ids of the games, in increasing order.
+     * @return count of type int, the number of ids written, at most ids.length.
+     */
+    public int findGames(long hash, long[] ids) {
+        long first = firstEntry(hash, false);
+        int count = 0;
+        for (long i = first; i < hashEntries && count < ids.length; i++) {
+            long entry = hashIndexOffset + i * GameArchiveWriter.ENTRY_BYTES;
+            if (getLong(entry) != hash) {
+                break;
+            }
+            ids[count++] = getLong(entry + 8);
+        }
+        return count;
+    }
+
+    /**
+     * A method to count the games that reached a position.
+     * @param hash of type long denotes the position's Position.getHash.
+     * @return count of type long
+     */
+    public long countGames(long hash) {
+        return firstEntry(hash, true) - firstEntry(hash, false);
+    }
+
+    /**
+     * A method to find the first position index entry whose hash is at least, or greater than, a given hash, with
+     * hashes compared as signed longs as sorted by GameArchiveWriter.
+     * @param hash of type long
+     * @param greater of type boolean, true to skip the entries equal to hash.
+     * @return index of type long, or hashEntries if there is none.
+     */
+    private long firstEntry(long hash, boolean greater) {
+        long low = 0;
+        long high = hashEntries;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            long middleHash = getLong(hashIndexOffset + middle * GameArchiveWriter.ENTRY_BYTES);
+            if (middleHash < hash || (greater && middleHash == hash)) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * A method to read a long at a file offset, which must not straddle two chunks.
+     * @param offset of type long
+     * @return value of type long
+     */
+    private long getLong(long offset) {
+        return chunks[(int) (offset >>> CHUNK_BITS)].getLong((int) (offset & (CHUNK_BYTES - 1)));
+    }
+
+    /**
+     * A method to unmap the file, as far as Java allows, by closing it.
+     * @throws IOException if the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * A class for an InputStream over a range of the mapped file, crossing chunks as needed.
+     */
+    private class MappedInputStream extends InputStream {
+        private long offset;
+        private final long end;
+
+        /**
+         * A constructor for MappedInputStream.
+         * @param offset of type long denotes the first byte.
+         * @param length of type long denotes the number of bytes.
+         */
+        MappedInputStream(long offset, long length) {
+            this.offset = offset;
+            this.end = offset + length;
+        }
+
+        /**
+         * Override of read in InputStream.
+         * @return the next byte, or -1 at the end of the range.
+         */
+        @Override
+        public int read() {
+            if (offset >= end) {
+                return -1;
+            }
+            int b = chunks[(int) (offset >>> CHUNK_BITS)].get((int) (offset & (CHUNK_BYTES - 1))) & 0xFF;
+            offset++;
+            return b;
+        }
+
+        /**
+         * Override of read in InputStream, copying straight from the mapped chunk.
+         * @param bytes of type byte[] denotes the buffer to fill.
+         * @param from of type int denotes the first index of bytes to fill.
+         * @param length of type int denotes the most bytes to read.
+         * @return count of type int, the number of bytes read, or -1 at the end of the range.
+         */
+        @Override
+        public int read(byte[] bytes, int from, int length) {
+            if (offset >= end) {
+                return -1;
+            }
+            int chunkOffset = (int) (offset & (CHUNK_BYTES - 1));
+            MappedByteBuffer chunk = chunks[(int) (offset >>> CHUNK_BITS)];
+            // Stop at the end of this chunk; the caller reads on from the next.
+            int count = (int) Math.min(Math.min(length, end - offset), chunk.capacity() - chunkOffset);
+            chunk.get(chunkOffset, bytes, from, count);
+            offset += count;
+            return count;
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package animalchess;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * A class for writing a GameArchive file. Games are appended to the data section as GameRecordWriter records as
+ * they are added, and close writes the two fixed-size indexes after them and fills in the header:
+ * <ul>
+ *     <li>header, HEADER_BYTES: MAGIC, the number of games, the offset of the game index, the offset of the
+ *     position index and its number of entries, each a long;</li>
+ *     <li>data: the records, one after another;</li>
+ *     <li>game index, aligned to ENTRY_BYTES: per game id, the record's offset and length, each a long;</li>
+ *     <li>position index: per distinct (hash, game id) pair, the Position.getHash of a position reached after a
+ *     move of that game and the game id, each a long, sorted by hash and then game id.</li>
+ * </ul>
+ * All numbers are big-endian. The position index may be far larger than the heap: positions are gathered in memory
+ * a run at a time, and each full run is sorted and written to a temporary file beside the archive, from which close
+ * merges the runs into the index. The temporary file is deleted when the writer is closed.
+ * @version 1
+ */
+public class GameArchiveWriter implements Closeable {
+    static final long MAGIC = 0x4143415243485631L; // "ACARCHV1"
+    static final int HEADER_BYTES = 64;
+    static final int ENTRY_BYTES = 16;
+    // Positions per run by default: 12 bytes each in memory, so 48 MB.
+    public static final int DEFAULT_RUN_ENTRIES = 1 << 22;
+    // The most games, as game ids are ints and index arrays; a little under Integer.MAX_VALUE, as some JVMs refuse
+    // arrays that long.
+    static final int MAX_GAMES = Integer.MAX_VALUE - 8;
+    // Entries read ahead from each run while merging.
+    private static final int MERGE_BUFFER_ENTRIES = 512;
+
+    private final FileChannel channel;
+    private final GameRecordWriter records;
+    private final Position position = new Position();
+
+    private long[] gameOffsets = new long[1024];
+    private long[] gameLengths = new long[1024];
+    private int gameCount;
+
+    // The run being gathered, of at most runEntries positions.
+    private final long[] hashes;
+    private final int[] hashGameIds;
+    private int hashCount;
+
+    // The temporary file of sorted runs, and where each run starts and ends in it.
+    private final Path runPath;
+    private final FileChannel runs;
+    private final List<long[]> runExtents = new ArrayList<>();
+
+    /**
+     * A constructor for the class GameArchiveWriter, which creates or overwrites the file, with runs of
+     * DEFAULT_RUN_ENTRIES positions.
+     * @param path of type Path denotes the archive file.
+     * @throws IOException if the file cannot be opened.
+     */
+    public GameArchiveWriter(Path path) throws IOException {
+        this(path, DEFAULT_RUN_ENTRIES);
+    }
+
+    /**
+     * A constructor for the class GameArchiveWriter, which creates or overwrites the file.
+     * @param path of type Path denotes the archive file.
+     * @param runEntries of type int denotes how many positions are held in memory before they are sorted and
+     * written to the temporary file, at least 1.
+     * @throws IOException if the file cannot be opened.
+     */
+    public GameArchiveWriter(Path path, int runEntries) throws IOException {
+        if (runEntries < 1) {
+            throw new IllegalArgumentException("A run must hold at least one position.");
+        }
+        this.hashes = new long[runEntries];
+        this.hashGameIds = new int[runEntries];
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            Path directory = path.toAbsolutePath().getParent();
+            this.runPath = Files.createTempFile(directory, path.getFileName().toString(), ".runs");
+            this.runs = FileChannel.open(runPath, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+        }
+        catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        channel.position(HEADER_BYTES);
+        OutputStream out = Channels.newOutputStream(channel);
+        this.records = new GameRecordWriter(out);
+    }
+
+    /**
+     * A method to add a Game to the archive: its Players, the moves made with Game.makeMove and its winner. A Game
+     * with moves made another way is refused, see GameRecordWriter.writeGame.
+     * @param game of type Game denotes the Game to be added.
+     * @return id of type int, the Game's id in the archive.
+     * @throws IOException if the file cannot be written.
+     */
+    public int addGame(Game game) throws IOException {
+        int id = gameCount;
+        if (id == gameOffsets.length) {
+            if (id == MAX_GAMES) {
+                throw new IllegalStateException("The archive is full.");
+            }
+            // Doubled in a long, which cannot overflow, then capped.
+            int length = (int) Math.min(2L * id, MAX_GAMES);
+            gameOffsets = Arrays.copyOf(gameOffsets, length);
+            gameLengths = Arrays.copyOf(gameLengths, length);
+        }
+        records.flush();
+        long start = channel.position();
+        records.writeGame(game);
+        records.flush();
+        gameOffsets[id] = start;
+        gameLengths[id] = channel.position() - start;
+        gameCount++;
+
+        Game.copyStartPosition(position);
+        for (int ply = 0; ply < game.getUndoCount(); ply++) {
+            position.makeMove(game.getMove(ply));
+            if (hashCount == hashes.length) {
+                writeRun();
+            }
+            hashes[hashCount] = position.getHash();
+            hashGameIds[hashCount] = id;
+            hashCount++;
+        }
+        return id;
+    }
+
+    /**
+     * A method to write the indexes and the header, and close the file.
+     * @throws IOException if the file cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            writeIndexes();
+        }
+        finally {
+            runs.close();
+            Files.deleteIfExists(runPath);
+            channel.close();
+        }
+    }
+
+    /**
+     * A method to write the indexes and the header.
+     * @throws IOException if the file cannot be written.
+     */
+    private void writeIndexes() throws IOException {
+        records.flush();
+        long gameIndexOffset = align(channel.position());
+        channel.position(gameIndexOffset);
+        ByteBuffer buffer = ByteBuffer.allocate(ENTRY_BYTES * 4096);
+        for (int id = 0; id < gameCount; id++) {
+            buffer.putLong(gameOffsets[id]).putLong(gameLengths[id]);
+            drainIfFull(buffer);
+        }
+        drain(buffer);
+
+        long hashIndexOffset = channel.position();
+        writeRun();
+        long hashEntries = merge(buffer);
+
+        buffer.putLong(MAGIC).putLong(gameCount).putLong(gameIndexOffset).putLong(hashIndexOffset)
+                .putLong(hashEntries);
+        buffer.flip();
+        channel.write(buffer, 0);
+        channel.force(true);
+    }
+
+    /**
+     * A method to sort the run gathered in memory and append it to the temporary file, a position repeated within
+     * a game once.
+     * @throws IOException if the file cannot be written.
+     */
+    private void writeRun() throws IOException {
+        if (hashCount == 0) {
+            return;
+        }
+        sort(0, hashCount - 1);
+        long start = runs.size();
+        runs.position(start);
+        ByteBuffer buffer = ByteBuffer.allocate(ENTRY_BYTES * 4096);
+        for (int i = 0; i < hashCount; i++) {
+            if (i > 0 && hashes[i] == hashes[i - 1] && hashGameIds[i] == hashGameIds[i - 1]) {
+                continue;
+            }
+            if (buffer.remaining() < ENTRY_BYTES) {
+                writeFully(runs, buffer);
+            }
+            buffer.putLong(hashes[i]).putLong(hashGameIds[i]);
+        }
+        writeFully(runs, buffer);
+        runExtents.add(new long[] {start, runs.position()});
+        hashCount = 0;
+    }
+
+    /**
+     * A method to merge the sorted runs into the position index, a (hash, game id) pair found in more than one run,
+     * when a game straddles two, once.
+     * @param buffer of type ByteBuffer denotes an empty buffer to write through.
+     * @return entries of type long, the number of entries written.
+     * @throws IOException if a file cannot be read or written.
+     */
+    private long merge(ByteBuffer buffer) throws IOException {
+        PriorityQueue<RunReader> queue = new PriorityQueue<>(Math.max(1, runExtents.size()),
+                Comparator.comparingLong((RunReader run) -> run.hash).thenComparingLong(run -> run.id));
+        for (long[] extent : runExtents) {
+            RunReader run = new RunReader(extent[0], extent[1]);
+            if (run.next()) {
+                queue.add(run);
+            }
+        }
+        long entries = 0;
+        long lastHash = 0;
+        long lastId = -1;
+        while (!queue.isEmpty()) {
+            RunReader run = queue.poll();
+            if (run.hash != lastHash || run.id != lastId) {
+                buffer.putLong(run.hash).putLong(run.id);
+                drainIfFull(buffer);
+                entries++;
+                lastHash = run.hash;
+                lastId = run.id;
+            }
+            if (run.next()) {
+                queue.add(run);
+            }
+        }
+        drain(buffer);
+        return entries;
+    }
+
+    /**
+     * A method to write the whole of a buffer to a channel and empty it.
+     * @param to of type FileChannel
+     * @param buffer of type ByteBuffer
+     * @throws IOException if the file cannot be written.
+     */
+    private static void writeFully(FileChannel to, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            to.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * A class for reading one sorted run back from the temporary file, a buffer at a time.
+     */
+    private final class RunReader {
+        private final ByteBuffer buffer;
+        private long position;
+        private final long end;
+        long hash;
+        long id;
+
+        RunReader(long start, long end) {
+            this.buffer = ByteBuffer.allocate((int) Math.min(ENTRY_BYTES * MERGE_BUFFER_ENTRIES, end - start));
+            this.position = start;
+            this.end = end;
+            buffer.limit(0);
+        }
+
+        /**
+         * A method to read the run's next entry into hash and id.
+         * @return false if the run is exhausted.
+         * @throws IOException if the file cannot be read.
+         */
+        boolean next() throws IOException {
+            if (!buffer.hasRemaining()) {
+                if (position == end) {
+                    return false;
+                }
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), end - position));
+                while (buffer.hasRemaining()) {
+                    int read = runs.read(buffer, position + buffer.position());
+                    if (read < 0) {
+                        throw new IOException("The temporary run file ended early.");
+                    }
+                }
+                position += buffer.limit();
+                buffer.flip();
+            }
+            hash = buffer.getLong();
+            id = buffer.getLong();
+            return true;
+        }
+    }
+
+    /**
+     * A method to round a file offset up to a whole number of index entries.
+     * @param offset of type long
+     * @return offset of type long
+     */
+    private static long align(long offset) {
+        return (offset + ENTRY_BYTES - 1) / ENTRY_BYTES * ENTRY_BYTES;
+    }
+
+    /**
+     * A method to write a buffer to the file once it cannot hold another entry.
+     * @param buffer of type ByteBuffer
+     * @throws IOException if the file cannot be written.
+     */
+    private void drainIfFull(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < ENTRY_BYTES) {
+            drain(buffer);
+        }
+    }
+
+    /**
+     * A method to write a buffer to the file and empty it.
+     * @param buffer of type ByteBuffer
+     * @throws IOException if the file cannot be written.
+     */
+    private void drain(ByteBuffer buffer) throws IOException {
+        writeFully(channel, buffer);
+    }
+
+    /**
+     * A quicksort of the (hash, game id) pairs between two indices, inclusive, by hash and then game id.
+     * @param low of type int
+     * @param high of type int
+     */
+    private void sort(int low, int high) {
+        while (low < high) {
+            if (high - low < 16) {
+                insertionSort(low, high);
+                return;
+            }
+            int middle = (low + high) >>> 1;
+            long pivotHash = hashes[middle];
+            int pivotId = hashGameIds[middle];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (compare(i, pivotHash, pivotId) < 0) {
+                    i++;
+                }
+                while (compare(j, pivotHash, pivotId) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            // Recurse into the smaller side so the stack stays shallow.
+            if (j - low < high - i) {
+                sort(low, j);
+                low = i;
+            }
+            else {
+                sort(i, high);
+                high = j;
+            }
+        }
+    }
+
+    /**
+     * An insertion sort of the (hash, game id) pairs between two indices, inclusive.
+     * @param low of type int
+     * @param high of type int
+     */
+    private void insertionSort(int low, int high) {
+        for (int i = low + 1; i <= high; i++) {
+            for (int j = i; j > low && compare(j - 1, hashes[j], hashGameIds[j]) > 0; j--) {
+                swap(j - 1, j);
+            }
+        }
+    }
+
+    /**
+     * A method to compare the pair at an index with a given pair.
+     * @param index of type int
+     * @param hash of type long
+     * @param id of type int
+     * @return a negative number, zero or a positive number as the pair at index is less than, equal to or greater.
+     */
+    private int compare(int index, long hash, int id) {
+        int byHash = Long.compare(hashes[index], hash);
+        return byHash != 0 ? byHash : Integer.compare(hashGameIds[index], id);
+    }
+
+    /**
+     * A method to swap two pairs.
+     * @param i of type int
+     * @param j of type int
+     */
+    private void swap(int i, int j) {
+        long hash = hashes[i];
+        hashes[i] = hashes[j];
+        hashes[j] = hash;
+        int id = hashGameIds[i];
+        hashGameIds[i] = hashGameIds[j];
+        hashGameIds[j] = id;
+    }
+}
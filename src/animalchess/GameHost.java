@@ -0,0 +1,230 @@
+package animalchess;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * A class for hosting many live Games in one JVM. Each Game is owned by an actor with a bounded mailbox: moves and
+ * queries from any thread are queued there and applied one at a time, in order, so a Game is never touched by two
+ * threads at once and needs no lock. An actor with an empty mailbox holds no thread; when a message arrives it is
+ * scheduled on a shared pool, drains a batch of messages and gives the thread back. Idle Games therefore cost only
+ * their memory, however many there are.
+ * <p>
+ * A full mailbox is the host's backpressure: the message is refused at once, its future failing with a
+ * RejectedExecutionException, and the client should slow down and retry.
+ * @version 1
+ */
+public class GameHost {
+    // Messages an actor handles before giving its thread to another actor.
+    private static final int BATCH = 32;
+
+    private final ConcurrentHashMap<Long, Actor> actors = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+    private final ExecutorService executor;
+    private final GamePool pool;
+    private final int mailboxCapacity;
+
+    /**
+     * A constructor for the class GameHost.
+     * @param threads of type int denotes the number of threads shared by every Game.
+     * @param mailboxCapacity of type int denotes the most messages waiting for one Game.
+     * @param pool of type GamePool denotes where Games are taken from and given back to when closed.
+     */
+    public GameHost(int threads, int mailboxCapacity, GamePool pool) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("There must be at least one thread.");
+        }
+        if (mailboxCapacity < 1) {
+            throw new IllegalArgumentException("A mailbox must hold at least one message.");
+        }
+        this.executor = new ForkJoinPool(threads, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        this.pool = pool;
+        this.mailboxCapacity = mailboxCapacity;
+    }
+
+    /**
+     * A method to start hosting a new Game.
+     * @param p0 of type Player represents Player 1.
+     * @param p1 of type Player represents Player 2.
+     * @return id of type long, the Game's id on this host.
+     */
+    public long createGame(Player p0, Player p1) {
+        long id = nextId.getAndIncrement();
+        actors.put(id, new Actor(pool.acquire(p0, p1)));
+        return id;
+    }
+
+    /**
+     * A method to make a move in a Game, see Game.makeMove.
+     * @param id of type long denotes the Game.
+     * @param move of type int denotes the move, see Moves.
+     * @return future of type CompletableFuture<Player>, completed with the winner, or null if the Game goes on, or
+     * failed with an IllegalArgumentException if the move is not legal.
+     */
+    public CompletableFuture<Player> makeMove(long id, int move) {
+        return ask(id, game -> {
+            game.makeMove(move);
+            return game.getWinner();
+        });
+    }
+
+    /**
+     * A method to run a query or update on a Game in its turn. The function must not keep the Game.
+     * @param id of type long denotes the Game.
+     * @param function of type Function<Game, T> denotes what to run on the Game.
+     * @param <T> denotes the type of the result.
+     * @return future of type CompletableFuture<T>, completed with the function's result.
+     */
+    public <T> CompletableFuture<T> ask(long id, Function<Game, T> function) {
+        Actor actor = actors.get(id);
+        if (actor == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("There is no game " + id + "."));
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (!actor.offer(() -> {
+            if (actor.closed) {
+                future.completeExceptionally(new IllegalArgumentException("There is no game " + id + "."));
+                return;
+            }
+            try {
+                future.complete(function.apply(actor.game));
+            }
+            catch (Throwable e) {
+                // Errors too, or the caller would wait on the future for ever.
+                future.completeExceptionally(e);
+            }
+        })) {
+            future.completeExceptionally(new RejectedExecutionException("The mailbox of game " + id + " is full."));
+        }
+        return future;
+    }
+
+    /**
+     * A method to stop hosting a Game once the messages already queued for it have been handled. The Game is then
+     * given back to the GamePool.
+     * @param id of type long denotes the Game.
+     * @return future of type CompletableFuture<Void>, completed once the Game is closed.
+     */
+    public CompletableFuture<Void> closeGame(long id) {
+        Actor actor = actors.remove(id);
+        if (actor == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("There is no game " + id + "."));
+        }
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        // A removed actor takes no new messages, so this one is last; it may exceed the capacity by one.
+        actor.closing.set(true);
+        actor.mailbox.add(() -> {
+            actor.closed = true;
+            pool.release(actor.game);
+            future.complete(null);
+        });
+        actor.size.incrementAndGet();
+        actor.schedule();
+        return future;
+    }
+
+    /**
+     * A getter for the number of Games hosted.
+     * @return count of type int
+     */
+    public int getGameCount() {
+        return actors.size();
+    }
+
+    /**
+     * A method to get how many messages are waiting for a Game.
+     * @param id of type long denotes the Game.
+     * @return size of type int, or 0 if there is no such Game.
+     */
+    public int getMailboxSize(long id) {
+        Actor actor = actors.get(id);
+        return actor == null ? 0 : actor.size.get();
+    }
+
+    /**
+     * A method to stop the shared threads once the messages already queued have been handled.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * A class for the actor that owns one Game: its mailbox and whether it is scheduled to run.
+     */
+    private final class Actor implements Runnable {
+        final Game game;
+        final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+        // The mailbox's length, kept apart because ConcurrentLinkedQueue.size walks the queue.
+        final AtomicInteger size = new AtomicInteger();
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        final AtomicBoolean closing = new AtomicBoolean();
+        // Set by the closing message, for messages that slipped in after it; only the actor's own turn reads it.
+        boolean closed;
+
+        Actor(Game game) {
+            this.game = game;
+        }
+
+        /**
+         * A method to queue a message, unless the mailbox is full or the Game is closing.
+         * @param message of type Runnable
+         * @return true if the message was queued.
+         */
+        boolean offer(Runnable message) {
+            if (closing.get()) {
+                return false;
+            }
+            if (size.incrementAndGet() > mailboxCapacity) {
+                size.decrementAndGet();
+                return false;
+            }
+            mailbox.add(message);
+            schedule();
+            return true;
+        }
+
+        /**
+         * A method to run this actor on the shared pool unless it is already scheduled.
+         */
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this);
+            }
+        }
+
+        /**
+         * A method to handle up to BATCH messages, then reschedule if more are waiting. Even if a message throws,
+         * the actor is unscheduled, so that later messages still run.
+         */
+        @Override
+        public void run() {
+            try {
+                for (int i = 0; i < BATCH; i++) {
+                    Runnable message = mailbox.poll();
+                    if (message == null) {
+                        break;
+                    }
+                    size.decrementAndGet();
+                    message.run();
+                }
+            }
+            finally {
+                scheduled.set(false);
+                // A message queued after the last poll but before scheduled was cleared would otherwise wait
+                // forever.
+                if (!mailbox.isEmpty()) {
+                    schedule();
+                }
+            }
+        }
+    }
+}
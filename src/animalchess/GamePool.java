@@ -0,0 +1,54 @@
+package animalchess;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * A class for a bounded pool of Games, so that a server starting many short Games reuses their Squares and Pieces
+ * instead of constructing new ones each time. Safe to use from many threads.
+ * @version 1
+ */
+public class GamePool {
+    private final ArrayBlockingQueue<Game> freeGames;
+
+    /**
+     * A constructor for the class GamePool.
+     * @param capacity of type int denotes the most Games kept for reuse.
+     */
+    public GamePool(int capacity) {
+        this.freeGames = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * A method to get a Game in its starting position for two Players, reusing a released Game if there is one.
+     * @param p0 of type Player represents Player 1.
+     * @param p1 of type Player represents Player 2.
+     * @return game of type Game
+     */
+    public Game acquire(Player p0, Player p1) {
+        Game game = freeGames.poll();
+        if (game == null) {
+            return new Game(p0, p1);
+        }
+        game.reset(p0, p1);
+        return game;
+    }
+
+    /**
+     * A method to give a finished Game back for reuse. The Game must not be used again by the caller.
+     * If the pool is full, the Game is left to the garbage collector. Its changeFeed is dropped, so that the
+     * listeners of the finished match hear nothing of the next.
+     * @param game of type Game denotes the Game to be released.
+     */
+    public void release(Game game) {
+        game.setChangeFeed(null);
+        freeGames.offer(game);
+    }
+
+    /**
+     * A getter for the number of Games waiting to be reused.
+     * @return size of type int
+     */
+    public int size() {
+        return freeGames.size();
+    }
+}
@@ -0,0 +1,110 @@
+package animalchess;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A class for reading the records written by GameRecordWriter, one at a time, from a stream. Only the record being
+ * read is held in memory, so a file of any size can be replayed.
+ * @version 1
+ */
+public class GameRecordReader implements Closeable {
+    private final DataInputStream in;
+
+    /**
+     * A constructor for the class GameRecordReader.
+     * @param in of type InputStream denotes the stream to read from.
+     */
+    public GameRecordReader(InputStream in) {
+        this.in = new DataInputStream(new BufferedInputStream(in));
+    }
+
+    /**
+     * A method to replay the next record into a Game, which is first reset with two new Players named as in the
+     * record. Every checkpoint hash is checked against the replayed position.
+     * @param game of type Game denotes the Game to replay into, e.g. one from a GamePool.
+     * @return true if a record was read, false at the end of the stream.
+     * @throws IOException if the stream cannot be read or the record is malformed.
+     */
+    public boolean readGame(Game game) throws IOException {
+        int magic = in.read();
+        if (magic < 0) {
+            return false;
+        }
+        if (magic != GameRecordWriter.MAGIC) {
+            throw new IOException("This is not a game record.");
+        }
+        int version = in.readUnsignedByte();
+        if (version != GameRecordWriter.VERSION) {
+            throw new IOException("Unsupported game record version " + version + ".");
+        }
+        int checkpointInterval = readVarint(in);
+        if (checkpointInterval < 1) {
+            throw new IOException("The checkpoint interval must be at least 1.");
+        }
+        game.reset(new Player(readName(), 0), new Player(readName(), 1));
+
+        int moveCount = 0;
+        int move;
+        while ((move = in.readUnsignedShort()) != GameRecordWriter.END) {
+            try {
+                game.makeMove(move);
+            }
+            catch (IllegalArgumentException | IllegalStateException e) {
+                throw new IOException("Move " + moveCount + " of the record is not legal.", e);
+            }
+            moveCount++;
+            if (moveCount % checkpointInterval == 0 && in.readLong() != game.getHash()) {
+                throw new IOException("The position after move " + moveCount + " does not match its checkpoint.");
+            }
+        }
+        int winner = in.readUnsignedByte() - 1;
+        Player actualWinner = game.getWinner();
+        if (winner != (actualWinner == null ? -1 : actualWinner.getPlayerNumber())) {
+            throw new IOException("The recorded winner does not match the replayed game.");
+        }
+        return true;
+    }
+
+    /**
+     * A method to close the underlying stream.
+     * @throws IOException if the stream cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * A method to read a Player's name written by GameRecordWriter.
+     * @return name of type String
+     * @throws IOException if the stream cannot be read.
+     */
+    private String readName() throws IOException {
+        byte[] bytes = new byte[readVarint(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A method to read a varint written by GameRecordWriter.writeVarint.
+     * @param in of type DataInputStream denotes the stream to read from.
+     * @return value of type int
+     * @throws IOException if the stream cannot be read or the varint is too long.
+     */
+    static int readVarint(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("A varint is too long.");
+    }
+}
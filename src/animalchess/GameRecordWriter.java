@@ -0,0 +1,167 @@
+package animalchess;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A class for writing Games in the compact binary record format, one record after another to a stream, e.g. a file
+ * opened for appending. A record is:
+ * <ul>
+ *     <li>the byte MAGIC, then the byte VERSION;</li>
+ *     <li>the checkpoint interval N as a varint;</li>
+ *     <li>each Player's name as a varint length followed by that many bytes of UTF-8, Player 0 first;</li>
+ *     <li>each move as 16 bits, big-endian (see Moves), followed after every N-th move by the 64-bit
+ *     Position.getHash of the position it leads to;</li>
+ *     <li>the 16 bits END, then one byte of the winner's playerNumber plus one (0 if there was none).</li>
+ * </ul>
+ * A varint holds 7 bits per byte, low bits first, with the top bit set on every byte but the last.
+ * @version 1
+ */
+public class GameRecordWriter implements Closeable {
+    static final int MAGIC = 0xA5;
+    static final int VERSION = 1;
+    // Never a move, because moves only use 14 bits.
+    static final int END = 0xFFFF;
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 16;
+
+    private final DataOutputStream out;
+    private final int checkpointInterval;
+    // The position of the record being written, to take the checkpoint hashes from.
+    private final Position position = new Position();
+    private int moveCount = -1;
+
+    /**
+     * A constructor for the class GameRecordWriter with the default checkpoint interval.
+     * @param out of type OutputStream denotes the stream to write to.
+     */
+    public GameRecordWriter(OutputStream out) {
+        this(out, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * A constructor for the class GameRecordWriter.
+     * @param out of type OutputStream denotes the stream to write to.
+     * @param checkpointInterval of type int denotes the number of moves between position hashes, at least 1.
+     */
+    public GameRecordWriter(OutputStream out, int checkpointInterval) {
+        if (checkpointInterval < 1) {
+            throw new IllegalArgumentException("The checkpoint interval must be at least 1.");
+        }
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * A method to write a whole Game: its Players, the moves made with Game.makeMove and its winner. A Game with
+     * moves made another way cannot be written, since they cannot be read back.
+     * @param game of type Game denotes the Game to be written.
+     * @throws IOException if the stream cannot be written.
+     */
+    public void writeGame(Game game) throws IOException {
+        if (!game.isFullyRecorded()) {
+            throw new IllegalArgumentException("The game has moves that were not made with makeMove.");
+        }
+        beginGame(game.getPlayer(0), game.getPlayer(1));
+        for (int ply = 0; ply < game.getUndoCount(); ply++) {
+            writeMove(game.getMove(ply));
+        }
+        Player winner = game.getWinner();
+        endGame(winner == null ? -1 : winner.getPlayerNumber());
+    }
+
+    /**
+     * A method to start a record, so that its moves can be written as they are played.
+     * @param p0 of type Player represents Player 1.
+     * @param p1 of type Player represents Player 2.
+     * @throws IOException if the stream cannot be written.
+     */
+    public void beginGame(Player p0, Player p1) throws IOException {
+        if (moveCount >= 0) {
+            throw new IllegalStateException("The previous game has not been ended.");
+        }
+        out.writeByte(MAGIC);
+        out.writeByte(VERSION);
+        writeVarint(out, checkpointInterval);
+        writeName(p0.getName());
+        writeName(p1.getName());
+        Game.copyStartPosition(position);
+        moveCount = 0;
+    }
+
+    /**
+     * A method to write the next move of the record.
+     * @param move of type int denotes the move, see Moves.
+     * @throws IOException if the stream cannot be written.
+     */
+    public void writeMove(int move) throws IOException {
+        if (moveCount < 0) {
+            throw new IllegalStateException("No game has been begun.");
+        }
+        out.writeShort(move);
+        position.makeMove(move);
+        moveCount++;
+        if (moveCount % checkpointInterval == 0) {
+            out.writeLong(position.getHash());
+        }
+    }
+
+    /**
+     * A method to end the record.
+     * @param winner of type int denotes the winner's playerNumber, or -1 if there was none.
+     * @throws IOException if the stream cannot be written.
+     */
+    public void endGame(int winner) throws IOException {
+        if (moveCount < 0) {
+            throw new IllegalStateException("No game has been begun.");
+        }
+        out.writeShort(END);
+        out.writeByte(winner + 1);
+        moveCount = -1;
+    }
+
+    /**
+     * A method to write any buffered bytes to the underlying stream.
+     * @throws IOException if the stream cannot be written.
+     */
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * A method to flush and close the underlying stream.
+     * @throws IOException if the stream cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * A method to write a Player's name as a varint length and UTF-8 bytes. A null name is written as empty.
+     * @param name of type String
+     * @throws IOException if the stream cannot be written.
+     */
+    private void writeName(String name) throws IOException {
+        byte[] bytes = name == null ? new byte[0] : name.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * A method to write a non-negative int as a varint.
+     * @param out of type DataOutputStream denotes the stream to write to.
+     * @param value of type int
+     * @throws IOException if the stream cannot be written.
+     */
+    static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+}
@@ -0,0 +1,190 @@
+package animalchess;
+
+/**
+ * A class for an immutable copy of a Game's state between moves, for threads other than the players'. Game
+ * publishes a new GameSnapshot after every move, take-back and reset, and any number of threads may read the latest
+ * one with Game.getSnapshot without locking and without ever seeing a move half made. Reading the Squares, Pieces
+ * and hands of a live Game from another thread gives no such guarantee.
+ * <p>
+ * A GameSnapshot is a handful of ints, the same bitboards as a Position, so publishing one costs one small
+ * allocation per move however many threads read it.
+ * @version 1
+ */
+public final class GameSnapshot {
+    private final long version;
+    private final int chicks, cats, dogs, lions;
+    private final int owner0, owner1;
+    private final int promoted;
+    private final int hand0, hand1;
+    private final int sideToMove;
+    // playerNumber of the winner, or -1.
+    private final int winner;
+    private final boolean draw;
+    private final long hash;
+
+    /**
+     * A constructor for the class GameSnapshot, copying a Position.
+     * @param version of type long denotes how many snapshots of the Game were published before this one.
+     * @param position of type Position denotes the Game's position.
+     * @param winner of type int denotes the playerNumber of the Game's winner, or -1.
+     * @param draw of type boolean, true if the Game is drawn by repetition.
+     */
+    GameSnapshot(long version, Position position, int winner, boolean draw) {
+        this.version = version;
+        this.chicks = position.getKindMask(Position.CHICK);
+        this.cats = position.getKindMask(Position.CAT);
+        this.dogs = position.getKindMask(Position.DOG);
+        this.lions = position.getKindMask(Position.LION);
+        this.owner0 = position.getOwnerMask(0);
+        this.owner1 = position.getOwnerMask(1);
+        this.promoted = position.getPromotedMask();
+        this.hand0 = position.getHand(0);
+        this.hand1 = position.getHand(1);
+        this.sideToMove = position.getSideToMove();
+        this.winner = winner;
+        this.draw = draw;
+        this.hash = position.getHash();
+    }
+
+    /**
+     * A getter for the version, which goes up by one with every snapshot of the same Game, so a reader can tell
+     * whether anything has changed since it last looked.
+     * @return version of type long
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * A method to get the kind of Piece on a Square.
+     * @param index of type int denotes the Square's bit index, see Position.index.
+     * @return kind of type int, e.g. Position.CHICK, or -1 if the Square is empty.
+     */
+    public int kindAt(int index) {
+        int bit = 1 << index;
+        if ((chicks & bit) != 0) {
+            return Position.CHICK;
+        }
+        else if ((cats & bit) != 0) {
+            return Position.CAT;
+        }
+        else if ((dogs & bit) != 0) {
+            return Position.DOG;
+        }
+        else if ((lions & bit) != 0) {
+            return Position.LION;
+        }
+        return -1;
+    }
+
+    /**
+     * A method to get the owner of the Piece on a Square.
+     * @param index of type int denotes the Square's bit index.
+     * @return playerNumber of type int, or -1 if the Square is empty.
+     */
+    public int ownerAt(int index) {
+        int bit = 1 << index;
+        if ((owner0 & bit) != 0) {
+            return 0;
+        }
+        else if ((owner1 & bit) != 0) {
+            return 1;
+        }
+        return -1;
+    }
+
+    /**
+     * A method to assert whether the Piece on a Square is promoted.
+     * @param index of type int denotes the Square's bit index.
+     * @return true if promoted.
+     */
+    public boolean isPromoted(int index) {
+        return (promoted & (1 << index)) != 0;
+    }
+
+    /**
+     * A method to get how many Pieces of a given kind are in a Player's hand.
+     * @param owner of type int denotes the owner's playerNumber.
+     * @param kind of type int denotes the kind of Piece.
+     * @return count of type int
+     */
+    public int getHandCount(int owner, int kind) {
+        return getHand(owner) >>> (kind << 2) & 0xF;
+    }
+
+    /**
+     * A getter for a Player's hand, packed as 4 bits per kind of Piece, see Position.getHand.
+     * @param owner of type int denotes the owner's playerNumber.
+     * @return hand of type int
+     */
+    int getHand(int owner) {
+        return owner == 0 ? hand0 : hand1;
+    }
+
+    /**
+     * A method to get the Squares whose Piece differs between this snapshot and another.
+     * @param other of type GameSnapshot, or null for an empty board.
+     * @return mask of type int
+     */
+    int changedSquares(GameSnapshot other) {
+        if (other == null) {
+            return owner0 | owner1;
+        }
+        return (chicks ^ other.chicks) | (cats ^ other.cats) | (dogs ^ other.dogs) | (lions ^ other.lions)
+                | (owner0 ^ other.owner0) | (owner1 ^ other.owner1) | (promoted ^ other.promoted);
+    }
+
+    /**
+     * A getter for the Player to move.
+     * @return sideToMove of type int, the playerNumber of the Player to move.
+     */
+    public int getSideToMove() {
+        return sideToMove;
+    }
+
+    /**
+     * A getter for the winner, see Game.getWinner.
+     * @return winner of type int, the playerNumber of the winner, or -1 if there is none.
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * A method to assert whether the Game is drawn by repetition, see Game.isDraw.
+     * @return true if the Game is drawn.
+     */
+    public boolean isDraw() {
+        return draw;
+    }
+
+    /**
+     * A getter for the position's Zobrist hash, see Position.getHash.
+     * @return hash of type long
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * A method to copy this snapshot's Pieces, hands and side to move into a Position, e.g. to analyse it.
+     * @param into of type Position denotes the Position to overwrite.
+     */
+    public void copyTo(Position into) {
+        into.clearAll();
+        for (int index = 0; index < Position.SQUARES; index++) {
+            int kind = kindAt(index);
+            if (kind >= 0) {
+                into.put(index, kind, ownerAt(index), isPromoted(index));
+            }
+        }
+        for (int owner = 0; owner < 2; owner++) {
+            for (int kind = 0; kind < Position.KINDS; kind++) {
+                for (int count = getHandCount(owner, kind); count > 0; count--) {
+                    into.addToHand(owner, kind);
+                }
+            }
+        }
+        into.setSideToMove(sideToMove);
+    }
+}
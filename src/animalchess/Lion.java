@@ -17,6 +17,15 @@ public class Lion extends Piece {
         super(owner, square);
     }
 
+    /**
+     * Override of getKind in superclass Piece.
+     * @return Position.LION
+     */
+    @Override
+    int getKind() {
+        return Position.LION;
+    }
+
     /**
      * Override of getLegalMoves in superclass Piece.
      * Because the Lion has the ability to move in all directions, which Player owns this Lion is irrelevant
@@ -47,7 +56,11 @@ public class Lion extends Piece {
      */
     @Override
     public void beCaptured(Player capturer) {
+        Game game = getSquare().getGame();
         super.beCaptured(capturer);
         capturer.winGame();
+        if (game != null) {
+            game.getPosition().setWinner(capturer.getPlayerNumber());
+        }
     }
 }
@@ -0,0 +1,460 @@
+package animalchess;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A class for a Monte Carlo tree search with UCT selection and random playouts, which take a capture of the Lion
+ * whenever there is one. Several threads grow one tree, steering apart with virtual loss.
+ * <p>
+ * The tree lives in an arena of parallel int arrays, one slot per node, with the children of a node in consecutive
+ * slots, so that a tree of millions of nodes is a handful of objects. When the next search starts from a position
+ * one or two moves below the last root, that subtree is kept: it is copied into a second arena, which then becomes
+ * the current one.
+ * @version 1
+ */
+public class MonteCarloSearch {
+    // Rewards are counted in half points from the point of view of the Player who made the move into a node.
+    private static final int WIN = 2;
+    private static final int DRAW = 1;
+    private static final int VIRTUAL_LOSS = 3;
+    private static final double EXPLORATION = 1.4;
+    private static final int MAX_PLAYOUT = 200;
+    private static final int MAX_DEPTH = 512;
+
+    private static final int UNEXPANDED = 0;
+    private static final int EXPANDING = 1;
+    private static final int EXPANDED = 2;
+
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final int capacity;
+    // The current arena and the one the kept subtree is copied into.
+    private Arena arena;
+    private Arena spare;
+    private final Position treeRoot = new Position();
+    private boolean hasTree;
+
+    private final Worker[] workers;
+    private final ForkJoinPool pool;
+    private final AtomicBoolean stopSignal = new AtomicBoolean();
+    private final AtomicLong playouts = new AtomicLong();
+    private long playoutLimit = Long.MAX_VALUE;
+    private long timeLimitMillis = Long.MAX_VALUE;
+    private long deadline;
+
+    /**
+     * A constructor for the class MonteCarloSearch.
+     * @param capacity of type int denotes the number of nodes in each of the two arenas.
+     * @param threads of type int denotes the number of threads, at least 1.
+     */
+    public MonteCarloSearch(int capacity, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("There must be at least one thread.");
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("There must be room for at least one node.");
+        }
+        this.capacity = capacity;
+        this.arena = new Arena(capacity);
+        this.spare = new Arena(capacity);
+        this.workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(0x9E3779B97F4A7C15L * (i + 1));
+        }
+        // The first worker runs on the calling thread.
+        this.pool = threads > 1 ? new ForkJoinPool(threads - 1) : null;
+    }
+
+    /**
+     * A method to find the best move for the Player to move in a Game. The Game itself is not changed.
+     * @param game of type Game denotes the Game to search.
+     * @return move of type int, see Moves, or 0 if the Player has no move.
+     */
+    public int findBestMove(Game game) {
+        return findBestMove(game.getPosition());
+    }
+
+    /**
+     * A method to find the best move for the side to move in a Position: the root move played out most often.
+     * The Position itself is not changed.
+     * @param root of type Position denotes the Position to search.
+     * @return move of type int, see Moves, or 0 if there is no move.
+     */
+    public int findBestMove(Position root) {
+        reuseTree(root);
+        stopSignal.set(false);
+        playouts.set(0);
+        deadline = timeLimitMillis == Long.MAX_VALUE
+                ? Long.MAX_VALUE : System.nanoTime() + timeLimitMillis * 1_000_000;
+
+        Future<?>[] helpers = new Future<?>[workers.length - 1];
+        for (int i = 1; i < workers.length; i++) {
+            Worker helper = workers[i];
+            helpers[i - 1] = pool.submit(helper::run);
+        }
+        workers[0].run();
+        stopSignal.set(true);
+        for (Future<?> helper : helpers) {
+            try {
+                helper.get();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            catch (ExecutionException e) {
+                throw new IllegalStateException("A search thread failed.", e.getCause());
+            }
+        }
+
+        int best = -1;
+        int bestVisits = -1;
+        for (int child = arena.firstChild[0], end = child + arena.childCount[0]; child < end; child++) {
+            if (arena.visits[child] > bestVisits) {
+                bestVisits = arena.visits[child];
+                best = child;
+            }
+        }
+        return best < 0 ? 0 : arena.move[best];
+    }
+
+    /**
+     * A method to make the root of the tree match a Position: the same root, a child or a grandchild of the last
+     * one, whose subtree is kept, or else a new tree.
+     * @param root of type Position
+     */
+    private void reuseTree(Position root) {
+        if (hasTree && treeRoot.getHash() == root.getHash()) {
+            return;
+        }
+        int keep = -1;
+        if (hasTree && arena.state[0] == EXPANDED) {
+            Position probe = new Position(treeRoot);
+            for (int child = arena.firstChild[0], end = child + arena.childCount[0]; child < end && keep < 0;
+                    child++) {
+                probe.makeMove(arena.move[child]);
+                if (probe.getHash() == root.getHash()) {
+                    keep = child;
+                }
+                else if (arena.state[child] == EXPANDED) {
+                    for (int grandchild = arena.firstChild[child], last = grandchild + arena.childCount[child];
+                            grandchild < last; grandchild++) {
+                        probe.makeMove(arena.move[grandchild]);
+                        boolean found = probe.getHash() == root.getHash();
+                        probe.unmakeMove();
+                        if (found) {
+                            keep = grandchild;
+                            break;
+                        }
+                    }
+                }
+                probe.unmakeMove();
+            }
+        }
+
+        treeRoot.copyFrom(root);
+        hasTree = true;
+        if (keep < 0) {
+            arena.clear();
+            return;
+        }
+        arena.copySubtree(keep, spare);
+        Arena old = arena;
+        arena = spare;
+        spare = old;
+    }
+
+    /**
+     * A method to stop a search in progress from another thread. findBestMove then returns the best move found so
+     * far.
+     */
+    public void stop() {
+        stopSignal.set(true);
+    }
+
+    /**
+     * A method to stop the worker threads for good.
+     */
+    public void shutdown() {
+        stop();
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * A method to forget the tree, e.g. at the start of a new Game.
+     */
+    public void clear() {
+        hasTree = false;
+        arena.clear();
+    }
+
+    /**
+     * A standard setter for playoutLimit.
+     * @param playoutLimit of type long denotes the number of playouts of a search, across every thread.
+     */
+    public void setPlayoutLimit(long playoutLimit) {
+        this.playoutLimit = playoutLimit;
+    }
+
+    /**
+     * A standard setter for timeLimitMillis.
+     * @param timeLimitMillis of type long denotes how long a search may take, in milliseconds.
+     */
+    public void setTimeLimit(long timeLimitMillis) {
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    /**
+     * A getter for the number of playouts of the last search.
+     * @return playouts of type long
+     */
+    public long getPlayouts() {
+        return playouts.get();
+    }
+
+    /**
+     * A getter for the number of nodes in the tree.
+     * @return nodes of type int
+     */
+    public int getNodeCount() {
+        return Math.min(arena.next.get(), capacity);
+    }
+
+    /**
+     * A class for the node storage. A node's child slots are written before its state is set to EXPANDED with a
+     * release store, so a thread that reads EXPANDED sees them.
+     */
+    private static final class Arena {
+        final int[] move;
+        final int[] firstChild;
+        final int[] childCount;
+        final int[] state;
+        final int[] visits;
+        final int[] reward;
+        final AtomicInteger next = new AtomicInteger(1);
+
+        Arena(int capacity) {
+            move = new int[capacity];
+            firstChild = new int[capacity];
+            childCount = new int[capacity];
+            state = new int[capacity];
+            visits = new int[capacity];
+            reward = new int[capacity];
+        }
+
+        /**
+         * A method to leave only an unexpanded root.
+         */
+        void clear() {
+            next.set(1);
+            childCount[0] = 0;
+            state[0] = UNEXPANDED;
+            visits[0] = 0;
+            reward[0] = 0;
+        }
+
+        /**
+         * A method to copy the subtree of a node into another arena, breadth first so that children stay
+         * consecutive. The node becomes the other arena's root.
+         * @param node of type int denotes the node.
+         * @param into of type Arena denotes the arena to be overwritten.
+         */
+        void copySubtree(int node, Arena into) {
+            into.clear();
+            into.copyNode(this, node, 0);
+            // The new arena's slots double as the queue: slot i is filled from the old node in from[i].
+            int[] from = new int[Math.min(next.get(), move.length)];
+            from[0] = node;
+            int free = 1;
+            for (int i = 0; i < free; i++) {
+                int old = from[i];
+                if (state[old] != EXPANDED) {
+                    into.state[i] = UNEXPANDED;
+                    into.childCount[i] = 0;
+                    continue;
+                }
+                into.firstChild[i] = free;
+                into.childCount[i] = childCount[old];
+                for (int c = 0; c < childCount[old]; c++) {
+                    from[free] = firstChild[old] + c;
+                    into.copyNode(this, from[free], free);
+                    free++;
+                }
+            }
+            into.next.set(free);
+        }
+
+        private void copyNode(Arena source, int node, int slot) {
+            move[slot] = source.move[node];
+            state[slot] = source.state[node];
+            visits[slot] = source.visits[node];
+            reward[slot] = source.reward[node];
+        }
+    }
+
+    /**
+     * A class for one thread's state: its copy of the root, move buffer, path and random number generator.
+     */
+    private final class Worker {
+        private final Position position = new Position();
+        private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+        private final int[] path = new int[MAX_DEPTH];
+        private long seed;
+
+        Worker(long seed) {
+            this.seed = seed;
+        }
+
+        /**
+         * A method to run playouts until the search is stopped or a limit is reached.
+         */
+        void run() {
+            Arena arena = MonteCarloSearch.this.arena;
+            while (!stopSignal.get()) {
+                if (playouts.getAndIncrement() >= playoutLimit || System.nanoTime() >= deadline) {
+                    playouts.decrementAndGet();
+                    stopSignal.set(true);
+                    break;
+                }
+                iterate(arena);
+            }
+        }
+
+        /**
+         * A method to run one selection, expansion, playout and backup.
+         * @param arena of type Arena denotes the tree.
+         */
+        private void iterate(Arena arena) {
+            position.copyFrom(treeRoot);
+            int node = 0;
+            int depth = 0;
+            path[depth++] = 0;
+            INTS.getAndAdd(arena.visits, 0, VIRTUAL_LOSS);
+
+            while ((int) INTS.getAcquire(arena.state, node) == EXPANDED && arena.childCount[node] > 0
+                    && position.getWinner() < 0 && depth < MAX_DEPTH) {
+                node = select(arena, node);
+                position.makeMove(arena.move[node]);
+                path[depth++] = node;
+                INTS.getAndAdd(arena.visits, node, VIRTUAL_LOSS);
+            }
+
+            if (position.getWinner() < 0 && depth < MAX_DEPTH
+                    && (int) INTS.getAcquire(arena.visits, node) > VIRTUAL_LOSS && expand(arena, node)) {
+                node = arena.firstChild[node] + (int) (nextRandom() % arena.childCount[node]);
+                position.makeMove(arena.move[node]);
+                path[depth++] = node;
+                INTS.getAndAdd(arena.visits, node, VIRTUAL_LOSS);
+            }
+
+            int winner = position.getWinner() >= 0 ? position.getWinner() : playout();
+            // path[0] is the root, whose mover is the opponent of the side to move.
+            int mover = 1 - treeRoot.getSideToMove();
+            for (int i = 0; i < depth; i++) {
+                int r = winner < 0 ? DRAW : winner == mover ? WIN : 0;
+                INTS.getAndAdd(arena.visits, path[i], 1 - VIRTUAL_LOSS);
+                INTS.getAndAdd(arena.reward, path[i], r);
+                mover = 1 - mover;
+            }
+        }
+
+        /**
+         * A method to pick the child of a node with the highest upper confidence bound. Visits in progress count
+         * as losses, so other threads are steered elsewhere.
+         * @param arena of type Arena denotes the tree.
+         * @param node of type int denotes the expanded node.
+         * @return child of type int
+         */
+        private int select(Arena arena, int node) {
+            double logVisits = Math.log(Math.max(1, (int) INTS.getOpaque(arena.visits, node)));
+            int best = arena.firstChild[node];
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int child = best, end = child + arena.childCount[node]; child < end; child++) {
+                int visits = (int) INTS.getOpaque(arena.visits, child);
+                if (visits == 0) {
+                    return child;
+                }
+                double score = (int) INTS.getOpaque(arena.reward, child) / (2.0 * visits)
+                        + EXPLORATION * Math.sqrt(logVisits / visits);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * A method to add a node's children, unless another thread is doing so or the arena is full.
+         * @param arena of type Arena denotes the tree.
+         * @param node of type int denotes the node, whose position is the worker's position.
+         * @return true if the node has children to choose from.
+         */
+        private boolean expand(Arena arena, int node) {
+            if (arena.next.get() >= arena.move.length
+                    || !INTS.compareAndSet(arena.state, node, UNEXPANDED, EXPANDING)) {
+                return false;
+            }
+            int count = MoveGenerator.generateAll(position, position.getSideToMove(), moves, 0);
+            int first = count == 0 ? 0 : arena.next.getAndAdd(count);
+            if (count == 0 || first + count > arena.move.length) {
+                // No moves, or no room: the node stays a leaf.
+                INTS.setRelease(arena.state, node, UNEXPANDED);
+                return false;
+            }
+            for (int i = 0; i < count; i++) {
+                int child = first + i;
+                arena.move[child] = moves[i];
+                arena.state[child] = UNEXPANDED;
+                arena.visits[child] = 0;
+                arena.reward[child] = 0;
+            }
+            arena.firstChild[node] = first;
+            arena.childCount[node] = count;
+            INTS.setRelease(arena.state, node, EXPANDED);
+            return true;
+        }
+
+        /**
+         * A method to play random moves from the worker's position, capturing the Lion whenever possible.
+         * @return winner of type int, the playerNumber of the winner, or -1 for a draw.
+         */
+        private int playout() {
+            for (int ply = 0; ply < MAX_PLAYOUT; ply++) {
+                int side = position.getSideToMove();
+                int count = MoveGenerator.generateAll(position, side, moves, 0);
+                if (count == 0) {
+                    return 1 - side;
+                }
+                int lion = position.getKindMask(Position.LION) & position.getOwnerMask(1 - side);
+                int move = moves[(int) (nextRandom() % count)];
+                for (int i = 0; i < count; i++) {
+                    if (!Moves.isDrop(moves[i]) && (lion >>> Moves.to(moves[i]) & 1) != 0) {
+                        return side;
+                    }
+                }
+                position.makeMove(move);
+            }
+            return -1;
+        }
+
+        /**
+         * A method for a fast xorshift random number.
+         * @return random of type long, not negative.
+         */
+        private long nextRandom() {
+            seed ^= seed << 13;
+            seed ^= seed >>> 7;
+            seed ^= seed << 17;
+            return seed >>> 1;
+        }
+    }
+}
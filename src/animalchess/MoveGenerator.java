@@ -0,0 +1,283 @@
+package animalchess;
+
+/**
+ * A class for allocation-free move generation over a Position. The Squares each kind of Piece can reach are
+ * precomputed once per (kind, promoted, owner, Square) and moves are written as ints, see Moves, into a buffer
+ * supplied by the caller.
+ * @version 1
+ */
+public final class MoveGenerator {
+    // Upper bound on the number of moves in any Position, so callers can size their buffers.
+    public static final int MAX_MOVES = 256;
+
+    // Indexed by tableIndex(kind, promoted, owner) * SQUARES + from.
+    private static final int[] ATTACKS = new int[Position.KINDS * 2 * 2 * Position.SQUARES];
+    // Indexed by playerNumber.
+    private static final int[] PROMOTION_ZONE = new int[2];
+    // The row a Chick may not be dropped onto, indexed by playerNumber. Same as Square.isLastRow.
+    private static final int[] LAST_ROW = new int[2];
+
+    static {
+        for (int owner = 0; owner < 2; owner++) {
+            // Same as Player.getDirection.
+            int direction = owner == 0 ? 1 : -1;
+            for (int from = 0; from < Position.SQUARES; from++) {
+                int row = Position.row(from);
+                int col = Position.col(from);
+                int chick = step(row, col, direction, 0);
+                int cat = chick
+                        | step(row, col, -1, -1) | step(row, col, 1, -1)
+                        | step(row, col, -1, 1) | step(row, col, 1, 1);
+                int dog = chick | step(row, col, -direction, 0)
+                        | step(row, col, 0, 1) | step(row, col, 0, -1)
+                        | step(row, col, direction, 1) | step(row, col, direction, -1);
+                int lion = 0;
+                for (int rowChange = -1; rowChange <= 1; rowChange++) {
+                    for (int colChange = -1; colChange <= 1; colChange++) {
+                        if (rowChange != 0 || colChange != 0) {
+                            lion |= step(row, col, rowChange, colChange);
+                        }
+                    }
+                }
+                // A promoted Chick or Cat moves like a Dog; Dog and Lion are never promoted.
+                setAttacks(Position.CHICK, owner, from, chick, dog);
+                setAttacks(Position.CAT, owner, from, cat, dog);
+                setAttacks(Position.DOG, owner, from, dog, dog);
+                setAttacks(Position.LION, owner, from, lion, lion);
+            }
+        }
+        for (int index = 0; index < Position.SQUARES; index++) {
+            // Same as Square.isPromotionZone.
+            if (Position.row(index) > 3) {
+                PROMOTION_ZONE[0] |= 1 << index;
+            }
+            if (Position.row(index) < 2) {
+                PROMOTION_ZONE[1] |= 1 << index;
+            }
+            if (Position.row(index) == Game.HEIGHT - 1) {
+                LAST_ROW[0] |= 1 << index;
+            }
+            if (Position.row(index) == 0) {
+                LAST_ROW[1] |= 1 << index;
+            }
+        }
+    }
+
+    /**
+     * Private constructor because MoveGenerator only has static methods.
+     */
+    private MoveGenerator() {
+    }
+
+    /**
+     * A method to get the bit of the Square reached by a step, or 0 if it is outwith the gameBoard.
+     * @param row of type int denotes the starting row.
+     * @param col of type int denotes the starting column.
+     * @param rowChange of type int denotes the change in row.
+     * @param colChange of type int denotes the change in column.
+     * @return bit of type int
+     */
+    private static int step(int row, int col, int rowChange, int colChange) {
+        int targetRow = row + rowChange;
+        int targetCol = col + colChange;
+        if (targetRow < 0 || targetRow >= Game.HEIGHT || targetCol < 0 || targetCol >= Game.WIDTH) {
+            return 0;
+        }
+        return 1 << Position.index(targetRow, targetCol);
+    }
+
+    /**
+     * A method to fill the attack table entries of a kind of Piece on one Square.
+     * @param kind of type int denotes the kind of Piece.
+     * @param owner of type int denotes the owner's playerNumber.
+     * @param from of type int denotes the bit index of the Piece's Square.
+     * @param unpromoted of type int denotes the attacked Squares when unpromoted.
+     * @param promoted of type int denotes the attacked Squares when promoted.
+     */
+    private static void setAttacks(int kind, int owner, int from, int unpromoted, int promoted) {
+        ATTACKS[tableIndex(kind, false, owner) * Position.SQUARES + from] = unpromoted;
+        ATTACKS[tableIndex(kind, true, owner) * Position.SQUARES + from] = promoted;
+    }
+
+    /**
+     * A method to get the attack table a (kind, promoted, owner) combination starts at.
+     * @param kind of type int denotes the kind of Piece.
+     * @param promoted of type boolean, true if the Piece is promoted.
+     * @param owner of type int denotes the owner's playerNumber.
+     * @return tableIndex of type int
+     */
+    private static int tableIndex(int kind, boolean promoted, int owner) {
+        return ((kind << 1 | (promoted ? 1 : 0)) << 1) | owner;
+    }
+
+    /**
+     * A method to get the Squares a Piece attacks, ignoring which of them are occupied.
+     * @param kind of type int denotes the kind of Piece, e.g. Position.CHICK.
+     * @param promoted of type boolean, true if the Piece is promoted.
+     * @param owner of type int denotes the owner's playerNumber.
+     * @param from of type int denotes the bit index of the Piece's Square.
+     * @return mask of type int
+     */
+    public static int attacks(int kind, boolean promoted, int owner, int from) {
+        return ATTACKS[tableIndex(kind, promoted, owner) * Position.SQUARES + from];
+    }
+
+    /**
+     * A getter for a Player's promotion zone.
+     * @param owner of type int denotes the owner's playerNumber.
+     * @return mask of type int
+     */
+    public static int promotionZone(int owner) {
+        return PROMOTION_ZONE[owner];
+    }
+
+    /**
+     * A method to assert whether the Piece on one Square may move to another, with one attack table lookup
+     * and a mask test. Whose turn it is is not considered.
+     * @param position of type Position denotes the Position the move is made in.
+     * @param from of type int denotes the bit index of the Square moved from.
+     * @param to of type int denotes the bit index of the Square moved to.
+     * @return true if the move is legal.
+     */
+    public static boolean isLegalStep(Position position, int from, int to) {
+        int owner = position.ownerAt(from);
+        if (owner < 0) {
+            return false;
+        }
+        int targets = attacks(position.kindAt(from), position.isPromoted(from), owner, from)
+                & ~position.getOwnerMask(owner);
+        return (targets & (1 << to)) != 0;
+    }
+
+    /**
+     * A method to assert whether an encoded move is legal for a Player, including whether its promotion flag
+     * matches what PromotablePiece.move would do.
+     * @param position of type Position denotes the Position the move is made in.
+     * @param side of type int denotes the moving Player's playerNumber.
+     * @param move of type int denotes the move, see Moves.
+     * @return true if the move is legal.
+     */
+    public static boolean isLegal(Position position, int side, int move) {
+        if (position.getWinner() >= 0) {
+            return false;
+        }
+        if (Moves.isDrop(move)) {
+            int kind = Moves.dropKind(move);
+            int to = Moves.to(move);
+            return kind < Position.KINDS && to < Position.SQUARES && position.getHandCount(side, kind) > 0
+                    && !position.isOccupied(to) && !(kind == Position.CHICK && (LAST_ROW[side] & (1 << to)) != 0);
+        }
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        if (from >= Position.SQUARES || to >= Position.SQUARES
+                || (position.getOwnerMask(side) & (1 << from)) == 0
+                || !isLegalStep(position, from, to)) {
+            return false;
+        }
+        int kind = position.kindAt(from);
+        boolean promotes = (kind == Position.CHICK || kind == Position.CAT) && !position.isPromoted(from)
+                && (PROMOTION_ZONE[side] & (1 << to)) != 0;
+        return promotes == Moves.isPromotion(move);
+    }
+
+    /**
+     * A method to validate a batch of moves, each in its own Position, in one call.
+     * @param positions of type Position[] denotes the Position of each move.
+     * @param sides of type int[] denotes the moving Player's playerNumber for each move.
+     * @param moves of type int[] denotes the moves, see Moves.
+     * @param count of type int denotes the number of moves to validate.
+     * @param legal of type boolean[] is set to whether each move is legal.
+     * @return count of type int, the number of legal moves.
+     */
+    public static int validate(Position[] positions, int[] sides, int[] moves, int count, boolean[] legal) {
+        int legalCount = 0;
+        for (int i = 0; i < count; i++) {
+            legal[i] = isLegal(positions[i], sides[i], moves[i]);
+            if (legal[i]) {
+                legalCount++;
+            }
+        }
+        return legalCount;
+    }
+
+    /**
+     * A method to write every legal move on the board for one Player into a buffer. There are none once
+     * the Game has been won.
+     * @param position of type Position denotes the Position to generate moves for.
+     * @param side of type int denotes the moving Player's playerNumber.
+     * @param moves of type int[] denotes the buffer, at least MAX_MOVES long from offset.
+     * @param offset of type int denotes the first index of moves to be written.
+     * @return count of type int, the number of moves written.
+     */
+    public static int generateMoves(Position position, int side, int[] moves, int offset) {
+        if (position.getWinner() >= 0) {
+            return 0;
+        }
+        int own = position.getOwnerMask(side);
+        int targetsMask = ~own & Position.BOARD_MASK;
+        int promoted = position.getPromotedMask();
+        int zone = PROMOTION_ZONE[side];
+        int count = offset;
+
+        for (int kind = 0; kind < Position.KINDS; kind++) {
+            int pieces = position.getKindMask(kind) & own;
+            boolean promotable = kind == Position.CHICK || kind == Position.CAT;
+            while (pieces != 0) {
+                int from = Integer.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                boolean isPromoted = (promoted & (1 << from)) != 0;
+                int targets = ATTACKS[tableIndex(kind, isPromoted, side) * Position.SQUARES + from] & targetsMask;
+                // Same as PromotablePiece.move: an unpromoted Chick or Cat promotes on entering the zone.
+                int promotingTargets = promotable && !isPromoted ? targets & zone : 0;
+                while (targets != 0) {
+                    int to = Integer.numberOfTrailingZeros(targets);
+                    targets &= targets - 1;
+                    moves[count++] = Moves.move(from, to, (promotingTargets & (1 << to)) != 0);
+                }
+            }
+        }
+        return count - offset;
+    }
+
+    /**
+     * A method to write every legal drop from hand for one Player into a buffer: one per kind of Piece in hand
+     * and empty Square, except a Chick onto the Player's last row. There are none once the Game has been won.
+     * @param position of type Position denotes the Position to generate drops for.
+     * @param side of type int denotes the dropping Player's playerNumber.
+     * @param moves of type int[] denotes the buffer.
+     * @param offset of type int denotes the first index of moves to be written.
+     * @return count of type int, the number of moves written.
+     */
+    public static int generateDrops(Position position, int side, int[] moves, int offset) {
+        if (position.getWinner() >= 0 || position.getHand(side) == 0) {
+            return 0;
+        }
+        int empty = ~position.getOccupied() & Position.BOARD_MASK;
+        int count = offset;
+        for (int kind = 0; kind < Position.KINDS; kind++) {
+            if (position.getHandCount(side, kind) == 0) {
+                continue;
+            }
+            int targets = kind == Position.CHICK ? empty & ~LAST_ROW[side] : empty;
+            while (targets != 0) {
+                int to = Integer.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                moves[count++] = Moves.drop(kind, to);
+            }
+        }
+        return count - offset;
+    }
+
+    /**
+     * A method to write every legal move for one Player, on the board and from hand, into a buffer.
+     * @param position of type Position denotes the Position to generate moves for.
+     * @param side of type int denotes the moving Player's playerNumber.
+     * @param moves of type int[] denotes the buffer, at least MAX_MOVES long from offset.
+     * @param offset of type int denotes the first index of moves to be written.
+     * @return count of type int, the number of moves written.
+     */
+    public static int generateAll(Position position, int side, int[] moves, int offset) {
+        int count = generateMoves(position, side, moves, offset);
+        return count + generateDrops(position, side, moves, offset + count);
+    }
+}
@@ -0,0 +1,104 @@
+package animalchess;
+
+/**
+ * A class for the int encoding of moves used by MoveGenerator. A move fits in 16 bits:
+ * bits 0-4 hold the to-Square's bit index, bits 5-9 the from-Square's bit index, bits 10-12 the kind of Piece
+ * dropped plus one (0 for a move on the board) and bit 13 is set if the move promotes the Piece.
+ * @version 1
+ */
+public final class Moves {
+    private static final int SQUARE_MASK = 0x1F;
+    private static final int FROM_SHIFT = 5;
+    private static final int DROP_SHIFT = 10;
+    private static final int PROMOTION = 1 << 13;
+    private static final String[] KIND_NAMES = {"Chick", "Cat", "Dog", "Lion"};
+
+    /**
+     * Private constructor because Moves only has static methods.
+     */
+    private Moves() {
+    }
+
+    /**
+     * A method to encode a move on the board.
+     * @param from of type int denotes the bit index of the Square moved from.
+     * @param to of type int denotes the bit index of the Square moved to.
+     * @param promotes of type boolean, true if the move promotes the Piece.
+     * @return move of type int
+     */
+    public static int move(int from, int to, boolean promotes) {
+        int move = (from << FROM_SHIFT) | to;
+        return promotes ? move | PROMOTION : move;
+    }
+
+    /**
+     * A method to encode a drop of a Piece from hand.
+     * @param kind of type int denotes the kind of Piece dropped, e.g. Position.CHICK.
+     * @param to of type int denotes the bit index of the Square dropped onto.
+     * @return move of type int
+     */
+    public static int drop(int kind, int to) {
+        return ((kind + 1) << DROP_SHIFT) | to;
+    }
+
+    /**
+     * A getter for the bit index of the Square moved to.
+     * @param move of type int
+     * @return to of type int
+     */
+    public static int to(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    /**
+     * A getter for the bit index of the Square moved from. Meaningless for a drop.
+     * @param move of type int
+     * @return from of type int
+     */
+    public static int from(int move) {
+        return (move >>> FROM_SHIFT) & SQUARE_MASK;
+    }
+
+    /**
+     * A method to assert whether a move is a drop from hand.
+     * @param move of type int
+     * @return true if the move is a drop.
+     */
+    public static boolean isDrop(int move) {
+        return (move >>> DROP_SHIFT & 0x7) != 0;
+    }
+
+    /**
+     * A getter for the kind of Piece dropped.
+     * @param move of type int
+     * @return kind of type int, or -1 if the move is not a drop.
+     */
+    public static int dropKind(int move) {
+        return (move >>> DROP_SHIFT & 0x7) - 1;
+    }
+
+    /**
+     * A method to assert whether a move promotes the Piece.
+     * @param move of type int
+     * @return true if the move promotes.
+     */
+    public static boolean isPromotion(int move) {
+        return (move & PROMOTION) != 0;
+    }
+
+    /**
+     * A method to describe a move for people, e.g. "2,2-3,2" for a move, "2,2-4,2+" for a promoting move and
+     * "Chick*3,2" for a drop.
+     * @param move of type int
+     * @return description of type String
+     */
+    public static String toString(int move) {
+        int to = to(move);
+        String target = Position.row(to) + "," + Position.col(to);
+        if (isDrop(move)) {
+            return KIND_NAMES[dropKind(move)] + "*" + target;
+        }
+        int from = from(move);
+        return Position.row(from) + "," + Position.col(from) + "-" + target + (isPromotion(move) ? "+" : "");
+    }
+}
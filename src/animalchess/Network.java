@@ -0,0 +1,199 @@
+package animalchess;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A class for a small quantized neural network that evaluates a Position in the style of NNUE. The first layer sums
+ * one row of weights per active input feature into an accumulator, which a NetworkAccumulator attached to the
+ * Position keeps up to date as Pieces are put, cleared, captured and dropped. Evaluating is then one clipped ReLU
+ * and one dot product over the accumulator.
+ * <p>
+ * Inputs are seen from each side's point of view, with the board turned round for Player 1, so there are two
+ * accumulators: the side to move's comes first in the output layer. A feature is a Piece (kind, counting promoted
+ * Chicks and Cats as kinds of their own, whether it is one's own, and Square) or a hand count (whether it is one's
+ * own hand, kind, and n for each of the first n Pieces of that kind in hand, up to HAND_SLOTS).
+ * <p>
+ * A weights file is little-endian: the int MAGIC, the int hidden size H, the int output scale, then H shorts of
+ * first-layer bias, FEATURES * H shorts of first-layer weights (feature-major), 2 * H shorts of output weights and
+ * the int output bias. The score is the output times the scale divided by CLIP * OUTPUT_SHIFT, in centi-Chicks.
+ * @version 1
+ */
+public class Network {
+    public static final int MAGIC = 0x4E4E4341; // "ACNN"
+    public static final int HAND_SLOTS = 8;
+    // Chick, promoted Chick, Cat, promoted Cat, Dog and Lion.
+    static final int PIECE_TYPES = 6;
+    static final int HAND_KINDS = Position.LION;
+    static final int BOARD_FEATURES = PIECE_TYPES * 2 * Position.SQUARES;
+    public static final int FEATURES = BOARD_FEATURES + 2 * HAND_KINDS * HAND_SLOTS;
+    // The clipped ReLU's ceiling, and the fixed-point scale of the output weights.
+    static final int CLIP = 255;
+    static final int OUTPUT_SHIFT = 64;
+    public static final int MAX_HIDDEN = 256;
+
+    final int hidden;
+    private final int scale;
+    final short[] featureBias;
+    final short[] featureWeights;
+    private final short[] outputWeights;
+    private final int outputBias;
+
+    /**
+     * A constructor for the class Network.
+     * @param hidden of type int denotes the size H of each accumulator.
+     * @param scale of type int denotes the output scale.
+     * @param featureBias of type short[] denotes the H first-layer biases.
+     * @param featureWeights of type short[] denotes the FEATURES * H first-layer weights, feature-major.
+     * @param outputWeights of type short[] denotes the 2 * H output weights, the side to move's half first.
+     * @param outputBias of type int denotes the output bias.
+     */
+    public Network(int hidden, int scale, short[] featureBias, short[] featureWeights, short[] outputWeights,
+            int outputBias) {
+        if (hidden < 1 || hidden > MAX_HIDDEN || featureBias.length != hidden || featureWeights.length != FEATURES * hidden
+                || outputWeights.length != 2 * hidden) {
+            throw new IllegalArgumentException("The weights do not match the hidden size.");
+        }
+        this.hidden = hidden;
+        this.scale = scale;
+        this.featureBias = featureBias;
+        this.featureWeights = featureWeights;
+        this.outputWeights = outputWeights;
+        this.outputBias = outputBias;
+    }
+
+    /**
+     * A method to load a Network from a weights file, see the class description.
+     * @param path of type Path denotes the file.
+     * @return network of type Network
+     * @throws IOException if the file cannot be read or is not a weights file.
+     */
+    public static Network load(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            DataInputStream data = new DataInputStream(in);
+            ByteBuffer header = read(data, 12);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("This is not a network weights file.");
+            }
+            int hidden = header.getInt();
+            int scale = header.getInt();
+            if (hidden < 1 || hidden > MAX_HIDDEN) {
+                throw new IOException("The hidden size " + hidden + " is out of range.");
+            }
+            short[] featureBias = readShorts(data, hidden);
+            short[] featureWeights = readShorts(data, FEATURES * hidden);
+            short[] outputWeights = readShorts(data, 2 * hidden);
+            int outputBias = read(data, 4).getInt();
+            return new Network(hidden, scale, featureBias, featureWeights, outputWeights, outputBias);
+        }
+    }
+
+    /**
+     * A method to read a number of little-endian bytes.
+     * @param data of type DataInputStream denotes the file.
+     * @param bytes of type int denotes the number of bytes.
+     * @return buffer of type ByteBuffer
+     * @throws IOException if the file ends first.
+     */
+    private static ByteBuffer read(DataInputStream data, int bytes) throws IOException {
+        byte[] buffer = new byte[bytes];
+        data.readFully(buffer);
+        return ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * A method to read a number of little-endian shorts.
+     * @param data of type DataInputStream denotes the file.
+     * @param count of type int denotes the number of shorts.
+     * @return shorts of type short[]
+     * @throws IOException if the file ends first.
+     */
+    private static short[] readShorts(DataInputStream data, int count) throws IOException {
+        short[] shorts = new short[count];
+        read(data, count * 2).asShortBuffer().get(shorts);
+        return shorts;
+    }
+
+    /**
+     * A method to make an accumulator for this Network, to be attached to a Position with
+     * Position.setAccumulator.
+     * @return accumulator of type NetworkAccumulator
+     */
+    public NetworkAccumulator newAccumulator() {
+        return new NetworkAccumulator(this);
+    }
+
+    /**
+     * A method to evaluate a Position, which must have an accumulator of this Network attached.
+     * @param position of type Position
+     * @return score of type int, positive if the side to move is better off.
+     */
+    public int evaluate(Position position) {
+        NetworkAccumulator accumulator = position.getAccumulator();
+        if (accumulator == null || accumulator.network != this) {
+            throw new IllegalStateException("The position has no accumulator for this network.");
+        }
+        short[] values = accumulator.values;
+        int side = position.getSideToMove();
+        long output = (long) outputBias + dot(values, side * hidden, 0) + dot(values, (1 - side) * hidden, hidden);
+        return (int) (output * scale / (CLIP * OUTPUT_SHIFT));
+    }
+
+    /**
+     * A method for the clipped ReLU of one accumulator dotted with half of the output weights. The loop is plain
+     * array arithmetic, which the JIT can compile to vector instructions.
+     * @param values of type short[] denotes both accumulators.
+     * @param from of type int denotes the start of one accumulator.
+     * @param weightsFrom of type int denotes the start of its half of the output weights.
+     * @return sum of type int, which cannot overflow while hidden is at most MAX_HIDDEN.
+     */
+    private int dot(short[] values, int from, int weightsFrom) {
+        int sum = 0;
+        for (int i = 0; i < hidden; i++) {
+            int x = Math.min(Math.max(values[from + i], 0), CLIP);
+            sum += x * outputWeights[weightsFrom + i];
+        }
+        return sum;
+    }
+
+    /**
+     * A method to get a Piece's feature from one side's point of view.
+     * @param perspective of type int denotes the side's playerNumber.
+     * @param kind of type int denotes the kind of Piece.
+     * @param promoted of type boolean, true if the Piece is promoted.
+     * @param owner of type int denotes the owner's playerNumber.
+     * @param index of type int denotes the Square's bit index.
+     * @return feature of type int
+     */
+    static int pieceFeature(int perspective, int kind, boolean promoted, int owner, int index) {
+        int type = kind == Position.LION ? 5 : kind * 2 + (promoted ? 1 : 0);
+        int square = perspective == 0 ? index
+                : Position.index(Game.HEIGHT - 1 - Position.row(index), Position.col(index));
+        return (type * 2 + (owner == perspective ? 0 : 1)) * Position.SQUARES + square;
+    }
+
+    /**
+     * A method to get a hand count's feature from one side's point of view.
+     * @param perspective of type int denotes the side's playerNumber.
+     * @param owner of type int denotes the hand's owner's playerNumber.
+     * @param kind of type int denotes the kind of Piece, not a Lion.
+     * @param n of type int denotes which Piece of that kind in hand, from 1, at most HAND_SLOTS.
+     * @return feature of type int
+     */
+    static int handFeature(int perspective, int owner, int kind, int n) {
+        return BOARD_FEATURES + ((owner == perspective ? 0 : 1) * HAND_KINDS + kind) * HAND_SLOTS + n - 1;
+    }
+
+    /**
+     * A getter for the size of each accumulator.
+     * @return hidden of type int
+     */
+    public int getHiddenSize() {
+        return hidden;
+    }
+}
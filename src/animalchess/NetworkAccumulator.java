@@ -0,0 +1,132 @@
+package animalchess;
+
+/**
+ * A class for the first-layer sums of a Network for one Position, from both sides' points of view. Once attached
+ * with Position.setAccumulator, the Position adds or subtracts one row of weights per feature that changes as
+ * Pieces are put, cleared, captured and dropped, so unmakeMove updates it as well as makeMove.
+ * @version 1
+ */
+public class NetworkAccumulator {
+    final Network network;
+    // Player 0's accumulator, then Player 1's, each of network.hidden values.
+    final short[] values;
+
+    /**
+     * A constructor for the class NetworkAccumulator, see Network.newAccumulator.
+     * @param network of type Network
+     */
+    NetworkAccumulator(Network network) {
+        this.network = network;
+        this.values = new short[2 * network.hidden];
+    }
+
+    /**
+     * A method to recompute both accumulators from scratch.
+     * @param position of type Position denotes the Position this accumulator is attached to.
+     */
+    void refresh(Position position) {
+        int hidden = network.hidden;
+        System.arraycopy(network.featureBias, 0, values, 0, hidden);
+        System.arraycopy(network.featureBias, 0, values, hidden, hidden);
+        int occupied = position.getOccupied();
+        while (occupied != 0) {
+            int index = Integer.numberOfTrailingZeros(occupied);
+            occupied &= occupied - 1;
+            addPiece(position.kindAt(index), position.isPromoted(index), position.ownerAt(index), index);
+        }
+        for (int owner = 0; owner < 2; owner++) {
+            for (int kind = 0; kind < Network.HAND_KINDS; kind++) {
+                for (int n = 1; n <= position.getHandCount(owner, kind); n++) {
+                    addHand(owner, kind, n);
+                }
+            }
+        }
+    }
+
+    /**
+     * A method to empty the board and hands, leaving only the biases.
+     */
+    void clear() {
+        int hidden = network.hidden;
+        System.arraycopy(network.featureBias, 0, values, 0, hidden);
+        System.arraycopy(network.featureBias, 0, values, hidden, hidden);
+    }
+
+    /**
+     * A method to add a Piece put on a Square.
+     * @param kind of type int denotes the kind of Piece.
+     * @param promoted of type boolean, true if the Piece is promoted.
+     * @param owner of type int denotes the owner's playerNumber.
+     * @param index of type int denotes the Square's bit index.
+     */
+    void addPiece(int kind, boolean promoted, int owner, int index) {
+        update(Network.pieceFeature(0, kind, promoted, owner, index),
+                Network.pieceFeature(1, kind, promoted, owner, index), 1);
+    }
+
+    /**
+     * A method to subtract a Piece cleared from a Square.
+     * @param kind of type int denotes the kind of Piece.
+     * @param promoted of type boolean, true if the Piece was promoted.
+     * @param owner of type int denotes the owner's playerNumber.
+     * @param index of type int denotes the Square's bit index.
+     */
+    void removePiece(int kind, boolean promoted, int owner, int index) {
+        update(Network.pieceFeature(0, kind, promoted, owner, index),
+                Network.pieceFeature(1, kind, promoted, owner, index), -1);
+    }
+
+    /**
+     * A method to add the n-th Piece of a kind in a hand.
+     * @param owner of type int denotes the hand's owner's playerNumber.
+     * @param kind of type int denotes the kind of Piece.
+     * @param n of type int denotes the new count.
+     */
+    void addHand(int owner, int kind, int n) {
+        if (kind < Network.HAND_KINDS && n <= Network.HAND_SLOTS) {
+            update(Network.handFeature(0, owner, kind, n), Network.handFeature(1, owner, kind, n), 1);
+        }
+    }
+
+    /**
+     * A method to subtract the n-th Piece of a kind in a hand.
+     * @param owner of type int denotes the hand's owner's playerNumber.
+     * @param kind of type int denotes the kind of Piece.
+     * @param n of type int denotes the old count.
+     */
+    void removeHand(int owner, int kind, int n) {
+        if (kind < Network.HAND_KINDS && n <= Network.HAND_SLOTS) {
+            update(Network.handFeature(0, owner, kind, n), Network.handFeature(1, owner, kind, n), -1);
+        }
+    }
+
+    /**
+     * A method to add or subtract one feature's row of weights in both accumulators. Each loop is plain array
+     * arithmetic over shorts, which the JIT can compile to vector instructions.
+     * @param feature0 of type int denotes the feature from Player 0's point of view.
+     * @param feature1 of type int denotes the feature from Player 1's point of view.
+     * @param sign of type int, 1 to add or -1 to subtract.
+     */
+    private void update(int feature0, int feature1, int sign) {
+        int hidden = network.hidden;
+        short[] weights = network.featureWeights;
+        int row0 = feature0 * hidden;
+        int row1 = feature1 * hidden;
+        if (sign > 0) {
+            for (int i = 0; i < hidden; i++) {
+                values[i] += weights[row0 + i];
+            }
+            for (int i = 0; i < hidden; i++) {
+                values[hidden + i] += weights[row1 + i];
+            }
+        }
+        else {
+            for (int i = 0; i < hidden; i++) {
+                values[i] -= weights[row0 + i];
+            }
+            for (int i = 0; i < hidden; i++) {
+                values[hidden + i] -= weights[row1 + i];
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package animalchess;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A class for a multi-threaded search in the Lazy SMP style: every worker runs its own Search on its own copy of
+ * the root Position, and they cooperate only through a shared TranspositionTable. Each helper skips some depths
+ * in its own pattern, so that at any moment the helpers are spread over several depths and fill the table ahead of
+ * the main worker. When the main worker finishes, or stop is called, every worker is signalled to stop.
+ * @version 1
+ */
+public class ParallelSearch {
+    // Helper i searches depths in blocks of SKIP_SIZE[(i - 1) % 20], shifted by SKIP_PHASE, and skips every other
+    // block: helpers 1 and 2 alternate single depths, the next four pairs of depths, and so on.
+    private static final int[] SKIP_SIZE = {1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 3, 3, 4, 4, 4, 4, 4, 4, 4, 4};
+    private static final int[] SKIP_PHASE = {0, 1, 0, 1, 2, 3, 0, 1, 2, 3, 4, 5, 0, 1, 2, 3, 4, 5, 6, 7};
+
+    private final Search[] workers;
+    private final ForkJoinPool pool;
+    private final AtomicBoolean stopSignal = new AtomicBoolean();
+    private Search lastBest;
+
+    /**
+     * A constructor for the class ParallelSearch.
+     * @param table of type TranspositionTable denotes the table shared by every worker.
+     * @param threads of type int denotes the number of workers, at least 1.
+     */
+    public ParallelSearch(TranspositionTable table, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("There must be at least one thread.");
+        }
+        this.workers = new Search[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Search(table);
+            workers[i].setStopSignal(stopSignal);
+            if (i > 0) {
+                workers[i].setDepthSkip(SKIP_SIZE[(i - 1) % SKIP_SIZE.length],
+                        SKIP_PHASE[(i - 1) % SKIP_PHASE.length]);
+            }
+        }
+        // The main worker runs on the calling thread.
+        this.pool = threads > 1 ? new ForkJoinPool(threads - 1) : null;
+    }
+
+    /**
+     * A method to find the best move for a Player in a Game. The Game itself is not changed.
+     * @param game of type Game denotes the Game to search.
+     * @param player of type Player denotes the Player to move.
+     * @return move of type int, see Moves, or 0 if the Player has no move.
+     */
+    public int findBestMove(Game game, Player player) {
+        Position root = new Position(game.getPosition());
+        root.setSideToMove(player.getPlayerNumber());
+        return findBestMove(root);
+    }
+
+    /**
+     * A method to find the best move for the side to move in a Position. The Position itself is not changed.
+     * @param root of type Position denotes the Position to search.
+     * @return move of type int, see Moves, or 0 if there is no move.
+     */
+    public int findBestMove(Position root) {
+        stopSignal.set(false);
+        List<Future<Integer>> helpers = new ArrayList<>(workers.length - 1);
+        for (int i = 1; i < workers.length; i++) {
+            Search helper = workers[i];
+            helpers.add(pool.submit(() -> helper.findBestMove(root)));
+        }
+
+        int move = workers[0].findBestMove(root);
+        stopSignal.set(true);
+
+        // Prefer the main worker's move unless a helper completed a deeper iteration.
+        Search best = workers[0];
+        for (int i = 0; i < helpers.size(); i++) {
+            try {
+                int helperMove = helpers.get(i).get();
+                Search helper = workers[i + 1];
+                if (helperMove != 0 && helper.getCompletedDepth() > best.getCompletedDepth()) {
+                    best = helper;
+                    move = helperMove;
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            catch (ExecutionException e) {
+                throw new IllegalStateException("A search thread failed.", e.getCause());
+            }
+        }
+        lastBest = best;
+        return move;
+    }
+
+    /**
+     * A method to stop a search in progress from another thread. findBestMove then returns the best move found so
+     * far.
+     */
+    public void stop() {
+        stopSignal.set(true);
+    }
+
+    /**
+     * A method to stop the worker threads for good.
+     */
+    public void shutdown() {
+        stop();
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * A method to set the maximum depth of every worker.
+     * @param maxDepth of type int denotes the deepest iteration.
+     */
+    public void setMaxDepth(int maxDepth) {
+        for (Search worker : workers) {
+            worker.setMaxDepth(maxDepth);
+        }
+    }
+
+    /**
+     * A method to set the node budget, which is split evenly between the workers.
+     * @param nodeLimit of type long denotes the node budget of a search.
+     */
+    public void setNodeLimit(long nodeLimit) {
+        for (Search worker : workers) {
+            worker.setNodeLimit(Math.max(1, nodeLimit / workers.length));
+        }
+    }
+
+    /**
+     * A method to make every worker evaluate with a Network, see Search.setNetwork.
+     * @param network of type Network, or null to go back to Evaluation.
+     */
+    public void setNetwork(Network network) {
+        for (Search worker : workers) {
+            worker.setNetwork(network);
+        }
+    }
+
+    /**
+     * A method to set how long a search may take.
+     * @param timeLimitMillis of type long denotes the time limit in milliseconds.
+     */
+    public void setTimeLimit(long timeLimitMillis) {
+        for (Search worker : workers) {
+            worker.setTimeLimit(timeLimitMillis);
+        }
+    }
+
+    /**
+     * A getter for the score of the last search's chosen move.
+     * @return score of type int
+     */
+    public int getBestScore() {
+        return lastBest == null ? 0 : lastBest.getBestScore();
+    }
+
+    /**
+     * A getter for the depth of the last search's chosen move.
+     * @return depth of type int
+     */
+    public int getCompletedDepth() {
+        return lastBest == null ? 0 : lastBest.getCompletedDepth();
+    }
+
+    /**
+     * A getter for the number of nodes visited by every worker in the last search.
+     * @return nodes of type long
+     */
+    public long getNodes() {
+        long nodes = 0;
+        for (Search worker : workers) {
+            nodes += worker.getNodes();
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,314 @@
+package animalchess;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A class for perft, which counts the positions reachable in a given number of moves, broken down by the kind of
+ * the last move. It runs on two move generators: MoveGenerator over a Position, and the object model's
+ * getLegalMoves, Player.getHand, Piece.move and Player.dropPiece. The two must always agree, which makes perft the
+ * check that an optimisation of either has not changed the rules, and its nodes per second the measure of the
+ * generator's speed.
+ * @version 1
+ */
+public class Perft {
+
+    /**
+     * A class for the counts of one perft run. Captures, drops, promotions and Lion captures count the moves
+     * of the last ply.
+     */
+    public static class Result {
+        public long nodes;
+        public long captures;
+        public long drops;
+        public long promotions;
+        public long lionCaptures;
+
+        /**
+         * A method to add another Result's counts to this one's.
+         * @param other of type Result
+         */
+        public void add(Result other) {
+            nodes += other.nodes;
+            captures += other.captures;
+            drops += other.drops;
+            promotions += other.promotions;
+            lionCaptures += other.lionCaptures;
+        }
+
+        /**
+         * Override of equals in Object, so that the results of the two generators can be compared.
+         * @param o of type Object represents a Result.
+         * @return true if every count is equal.
+         */
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Result result = (Result) o;
+            return nodes == result.nodes && captures == result.captures && drops == result.drops
+                    && promotions == result.promotions && lionCaptures == result.lionCaptures;
+        }
+
+        /**
+         * Override of hashCode in Object, consistent with equals.
+         * @return hashCode of type int
+         */
+        @Override
+        public int hashCode() {
+            return Long.hashCode(nodes * 31 + captures) ^ Long.hashCode(drops * 31 + promotions + lionCaptures);
+        }
+
+        /**
+         * Override of toString in Object.
+         * @return counts of type String
+         */
+        @Override
+        public String toString() {
+            return "nodes=" + nodes + " captures=" + captures + " drops=" + drops + " promotions=" + promotions
+                    + " lionCaptures=" + lionCaptures;
+        }
+    }
+
+    /**
+     * Private constructor because Perft only has static methods.
+     */
+    private Perft() {
+    }
+
+    /**
+     * A method to run perft over a Position with MoveGenerator. The Position is left unchanged.
+     * @param position of type Position denotes the starting Position.
+     * @param depth of type int denotes the number of moves, at least 1.
+     * @return result of type Result
+     */
+    public static Result perft(Position position, int depth) {
+        Result result = new Result();
+        perft(position, depth, new int[depth][MoveGenerator.MAX_MOVES], result);
+        return result;
+    }
+
+    /**
+     * The recursion of perft over a Position.
+     * @param position of type Position denotes the current Position.
+     * @param depth of type int denotes the remaining number of moves.
+     * @param buffers of type int[][] denotes one move buffer per remaining move.
+     * @param result of type Result denotes the counts to add to.
+     */
+    private static void perft(Position position, int depth, int[][] buffers, Result result) {
+        int[] moves = buffers[depth - 1];
+        int count = MoveGenerator.generateAll(position, position.getSideToMove(), moves, 0);
+        if (depth == 1) {
+            result.nodes += count;
+            for (int i = 0; i < count; i++) {
+                countLastMove(moves[i], Moves.isDrop(moves[i]) ? -1 : position.kindAt(Moves.to(moves[i])), result);
+            }
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            position.makeMove(moves[i]);
+            perft(position, depth - 1, buffers, result);
+            position.unmakeMove();
+        }
+    }
+
+    /**
+     * A method to run perft over a Game through its object model: moves are listed with Piece.getLegalMoves and
+     * Player.getHandCount, made with Piece.move and Player.dropPiece, and taken back with Game.unmakeMove. Only
+     * Piece.move consults MoveGenerator, to check the step; a move it refuses is left uncounted, so that any
+     * disagreement with MoveGenerator shows up as a difference in the counts. The Game is left unchanged.
+     * @param game of type Game denotes the starting Game.
+     * @param depth of type int denotes the number of moves, at least 1.
+     * @return result of type Result
+     */
+    public static Result perft(Game game, int depth) {
+        Result result = new Result();
+        perftObjects(game, depth, result);
+        return result;
+    }
+
+    /**
+     * The recursion of perft over a Game.
+     * @param game of type Game denotes the current Game.
+     * @param depth of type int denotes the remaining number of moves.
+     * @param result of type Result denotes the counts to add to.
+     */
+    private static void perftObjects(Game game, int depth, Result result) {
+        List<Integer> moves = legalMovesFromObjects(game);
+        Player player = game.getPlayerToMove();
+        for (int move : moves) {
+            Square toSquare = game.getSquare(Position.row(Moves.to(move)), Position.col(Moves.to(move)));
+            Piece captured = Moves.isDrop(move) ? null : toSquare.getPiece();
+            long undo = game.undoRecord(move);
+            Piece piece;
+            if (Moves.isDrop(move)) {
+                piece = player.getHand().get(Undo.handIndex(undo));
+                player.dropPiece(piece, toSquare);
+            }
+            else {
+                piece = game.getSquare(Position.row(Moves.from(move)), Position.col(Moves.from(move))).getPiece();
+                piece.move(toSquare);
+            }
+            if (piece.getSquare() != toSquare) {
+                continue;
+            }
+            game.pushUndo(undo);
+            if (depth == 1) {
+                result.nodes++;
+                countLastMove(move, captured == null ? -1 : captured.getKind(), result);
+            }
+            else {
+                perftObjects(game, depth - 1, result);
+            }
+            game.unmakeMove();
+        }
+    }
+
+    /**
+     * A method to list the legal moves of the Player to move using only the object model.
+     * @param game of type Game denotes the Game.
+     * @return moves of type List<Integer>, see Moves.
+     */
+    static List<Integer> legalMovesFromObjects(Game game) {
+        List<Integer> moves = new ArrayList<>();
+        // Only a Lion capture ends the Game here, as in the Position path, which knows nothing of repetitions.
+        if (game.getPlayer(0).hasWon() || game.getPlayer(1).hasWon()) {
+            return moves;
+        }
+        Player player = game.getPlayerToMove();
+        for (int row = 0; row < Game.HEIGHT; row++) {
+            for (int col = 0; col < Game.WIDTH; col++) {
+                Piece piece = game.getSquare(row, col).getPiece();
+                if (piece == null || !piece.getOwner().equals(player)) {
+                    continue;
+                }
+                for (Square toSquare : piece.getLegalMoves()) {
+                    boolean promotes = piece instanceof PromotablePiece
+                            && !((PromotablePiece) piece).getIsPromoted() && toSquare.isPromotionZone(player);
+                    moves.add(Moves.move(Position.index(row, col), toSquare.getIndex(), promotes));
+                }
+            }
+        }
+        for (int kind = 0; kind < Position.KINDS; kind++) {
+            if (player.getHandCount(kind) == 0) {
+                continue;
+            }
+            for (int row = 0; row < Game.HEIGHT; row++) {
+                for (int col = 0; col < Game.WIDTH; col++) {
+                    Square square = game.getSquare(row, col);
+                    if (!square.isOccupied() && !(kind == Position.CHICK && square.isLastRow(player))) {
+                        moves.add(Moves.drop(kind, Position.index(row, col)));
+                    }
+                }
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * A method to count a move of the last ply by its kind.
+     * @param move of type int
+     * @param capturedKind of type int denotes the kind of Piece captured, or -1.
+     * @param result of type Result denotes the counts to add to.
+     */
+    private static void countLastMove(int move, int capturedKind, Result result) {
+        if (Moves.isDrop(move)) {
+            result.drops++;
+        }
+        if (Moves.isPromotion(move)) {
+            result.promotions++;
+        }
+        if (capturedKind >= 0) {
+            result.captures++;
+            if (capturedKind == Position.LION) {
+                result.lionCaptures++;
+            }
+        }
+    }
+
+    /**
+     * A method to run perft once per move of the side to move, e.g. to find which move two generators disagree on.
+     * @param position of type Position denotes the starting Position.
+     * @param depth of type int denotes the number of moves, including the first, at least 1.
+     * @return results of type Map<Integer, Result>, per first move, see Moves.
+     */
+    public static Map<Integer, Result> divide(Position position, int depth) {
+        Map<Integer, Result> results = new LinkedHashMap<>();
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generateAll(position, position.getSideToMove(), moves, 0);
+        for (int i = 0; i < count; i++) {
+            Result result = new Result();
+            if (depth == 1) {
+                result.nodes = 1;
+                countLastMove(moves[i], Moves.isDrop(moves[i]) ? -1 : position.kindAt(Moves.to(moves[i])), result);
+            }
+            else {
+                position.makeMove(moves[i]);
+                perft(position, depth - 1, new int[depth - 1][MoveGenerator.MAX_MOVES], result);
+                position.unmakeMove();
+            }
+            results.put(moves[i], result);
+        }
+        return results;
+    }
+
+    /**
+     * A method to run perft with the first moves split across the threads of a ForkJoinPool, each with its own
+     * copy of the Position.
+     * @param position of type Position denotes the starting Position.
+     * @param depth of type int denotes the number of moves, at least 1.
+     * @param pool of type ForkJoinPool denotes the threads to run on.
+     * @return result of type Result
+     */
+    public static Result parallelPerft(Position position, int depth, ForkJoinPool pool) {
+        if (depth < 3) {
+            return perft(position, depth);
+        }
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generateAll(position, position.getSideToMove(), moves, 0);
+        List<RecursiveTask<Result>> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Position child = new Position(position);
+            child.makeMove(moves[i]);
+            tasks.add(new RecursiveTask<Result>() {
+                @Override
+                protected Result compute() {
+                    return perft(child, depth - 1);
+                }
+            });
+        }
+        Result result = new Result();
+        for (RecursiveTask<Result> task : tasks) {
+            pool.execute(task);
+        }
+        for (RecursiveTask<Result> task : tasks) {
+            result.add(task.join());
+        }
+        return result;
+    }
+
+    /**
+     * Runs perft from the starting position up to a depth given as the first argument (default 5) on both
+     * generators, checks they agree and prints nodes per second.
+     * @param args of type String[]
+     */
+    public static void main(String[] args) {
+        int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        Game game = new Game(new Player("Player 0", 0), new Player("Player 1", 1));
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            long start = System.nanoTime();
+            Result fast = parallelPerft(game.getPosition(), depth, ForkJoinPool.commonPool());
+            long fastNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            Result objects = perft(game, depth);
+            long objectNanos = System.nanoTime() - start;
+            System.out.println("depth " + depth + ": " + fast + (fast.equals(objects) ? "" : " MISMATCH " + objects));
+            System.out.printf("  MoveGenerator %.0f nodes/s, object model %.0f nodes/s%n",
+                    fast.nodes * 1e9 / fastNanos, objects.nodes * 1e9 / objectNanos);
+        }
+    }
+}
@@ -29,27 +29,73 @@ public abstract class Piece {
      */
     public abstract ArrayList<Square> getLegalMoves();
 
+    /**
+     * An abstract method to get the kind of a Piece as used by Position, e.g. Position.CHICK.
+     * @return kind of type int
+     */
+    abstract int getKind();
+
+    /**
+     * A method to assert whether a Piece is promoted. Only a PromotablePiece can be.
+     * @return false
+     */
+    boolean isPromoted() {
+        return false;
+    }
+
     /**
      * A method to move a Piece to a Square.
      * @param toSquare of type Square denotes the Square to be moved to.
      */
     public void move(Square toSquare) {
-        // TODO Validate legal moves?
-        // TODO Check logic
-        // If that Square is occupied by a Piece and that Piece's owner is not this Piece's owner.
-        if (toSquare.isOccupied() && !toSquare.getPiece().getOwner().equals(owner)) {
-            toSquare.getPiece().beCaptured(owner);
-        }
         Game game = toSquare.getGame();
         // If the scenario involves a null Game, you cannot call getSquare, because there is no gameBoard,
         // so placePiece is called.
         if (game == null) {
+            captureIfOpponent(toSquare);
             toSquare.placePiece(this);
+            arrive(toSquare);
         }
-        else if (getLegalMoves().contains(toSquare)) {
+        else if (isLegalMove(toSquare)) {
+            captureIfOpponent(toSquare);
             getSquare().setPiece(null);
             setSquare(toSquare);
             toSquare.setPiece(this);
+            arrive(toSquare);
+            game.moveMade(owner);
+        }
+    }
+
+    /**
+     * A method called by move once a Piece is on the Square it moved to, before the move is reported to the Game.
+     * @param toSquare of type Square denotes the Square moved to.
+     */
+    void arrive(Square toSquare) {
+    }
+
+    /**
+     * A method to assert whether this Piece may move to a Square in its Game, answered from the Game's Position
+     * instead of building the list of legal moves.
+     * @param toSquare of type Square denotes the Square to be moved to.
+     * @return true if the move is legal.
+     */
+    public boolean isLegalMove(Square toSquare) {
+        Square fromSquare = getSquare();
+        Game game = toSquare.getGame();
+        if (game == null || fromSquare == null || fromSquare.getGame() != game) {
+            return false;
+        }
+        return MoveGenerator.isLegalStep(game.getPosition(), fromSquare.getIndex(), toSquare.getIndex());
+    }
+
+    /**
+     * A method to capture the Piece on a Square if it is owned by this Piece's owner's opponent.
+     * @param toSquare of type Square denotes the Square to be moved to.
+     */
+    private void captureIfOpponent(Square toSquare) {
+        // If that Square is occupied by a Piece and that Piece's owner is not this Piece's owner.
+        if (toSquare.isOccupied() && !toSquare.getPiece().getOwner().equals(owner)) {
+            toSquare.getPiece().beCaptured(owner);
         }
     }
 
@@ -60,6 +106,7 @@ public abstract class Piece {
     public void beCaptured(Player capturer) {
         this.setOwner(capturer);
         getSquare().setPiece(null);
+        // addPieceToHand also adds the Piece to the hand of the Game's Position.
         capturer.addPieceToHand(this);
         setSquare(null);
     }
@@ -94,6 +141,9 @@ public abstract class Piece {
      */
     public void setOwner(Player owner) {
         this.owner = owner;
+        if (square != null) {
+            square.syncPosition();
+        }
     }
 
     /**
@@ -107,23 +157,19 @@ public abstract class Piece {
      */
     protected void addMoveIfPossible(Square currentPosition, int rowMove, int colMove, ArrayList<Square> legalMoves) {
         Game game = currentPosition.getGame();
-        Player owner = getOwner();
         int targetRow = currentPosition.getRow() + rowMove;
         int targetCol = currentPosition.getCol() + colMove;
 
         if (game.hasSquare(targetRow, targetCol)) { // Is not outwith gameBoard.
-            // The target square being evaluated for a potential next move
-            Square targetSquare = game.getSquare(targetRow, targetCol);
-            if (targetSquare.isOccupied()) {
-                Piece occupyingPiece = targetSquare.getPiece();
-                if(owner.equals(occupyingPiece.getOwner())) { // If Pieces have the same owner
-                    // If targetSquare is occupied by a Piece of of the same owner, the move is not legal as one
-                    // cannot capture one's own Piece and move to the Square it's occupying respectively.
-                    return; // Break out of loop
-                }
+            int targetIndex = Position.index(targetRow, targetCol);
+            // If the target Square is occupied by a Piece of the same owner, the move is not legal as one
+            // cannot capture one's own Piece and move to the Square it's occupying respectively.
+            // Read from the owner's mask rather than following the target Square's Piece.
+            if ((game.getPosition().getOwnerMask(getOwner().getPlayerNumber()) & (1 << targetIndex)) != 0) {
+                return; // Break out of loop
             }
 
-            legalMoves.add(game.getSquare(targetRow, targetCol));
+            legalMoves.add(game.getSquare(targetIndex));
         }
     }
 
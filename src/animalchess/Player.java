@@ -11,6 +11,9 @@ public class Player {
     private int playerNumber;
     // initialCapacity: 8, because up to 8 of opponent's Pieces could be captured.
     private ArrayList<Piece> hand = new ArrayList<>(8);
+    // Per-kind counts of the Pieces in hand, 4 bits per kind (see Position.CHICK etc.), so that asking what can be
+    // dropped never walks the list.
+    private int handCounts = 0;
     // Will be set to true when a Player has won the game.
     private boolean won = false;
 
@@ -48,12 +51,38 @@ public class Player {
     }
 
     /**
-     * A method to add a Piece to a Player's hand.
+     * A method to add a Piece to a Player's hand. If the Piece is on a Game's gameBoard, the Game's Position hand
+     * is updated too, so that dropPiece can take it out again.
      * @param piece of type Piece,  the Piece to be added to the Player's hand.
      */
     public void addPieceToHand (Piece piece) {
+        Square square = piece.getSquare();
+        Game game = square == null ? null : square.getGame();
         this.hand.add(piece);
-        piece.getSquare().removePiece();
+        handCounts += 1 << (piece.getKind() << 2);
+        if (square != null) {
+            square.removePiece();
+        }
+        if (game != null) {
+            game.getPosition().addToHand(playerNumber, piece.getKind());
+        }
+    }
+
+    /**
+     * A method to get how many Pieces of a given kind are in a Player's hand.
+     * @param kind of type int denotes the kind of Piece, e.g. Position.CHICK.
+     * @return count of type int
+     */
+    public int getHandCount(int kind) {
+        return handCounts >>> (kind << 2) & 0xF;
+    }
+
+    /**
+     * A getter for handCounts.
+     * @return handCounts of type int, 4 bits per kind of Piece.
+     */
+    public int getHandCounts() {
+        return handCounts;
     }
 
     /**
@@ -62,8 +91,60 @@ public class Player {
      * @param square of type Square, the Square that Piece should to dropped onto.
      */
     public void dropPiece(Piece piece, Square square) {
-        this.hand.remove(piece);
+        Game game = square.getGame();
+        if (game != null && piece instanceof Chick && square.isLastRow(this)) {
+            throw new IllegalArgumentException("A Chick cannot be dropped onto the last row.");
+        }
+        // The Piece dropped is most often the last one captured, so search from the end.
+        int index = this.hand.lastIndexOf(piece);
+        if (index >= 0) {
+            this.hand.remove(index);
+            handCounts -= 1 << (piece.getKind() << 2);
+        }
         square.placePiece(piece);
+        if (game != null) {
+            if (index >= 0) {
+                game.getPosition().removeFromHand(playerNumber, piece.getKind());
+            }
+            game.moveMade(this);
+        }
+    }
+
+    /**
+     * A method to find the last Piece of a given kind in a Player's hand.
+     * @param kind of type int denotes the kind of Piece.
+     * @return index of type int, or -1 if there is none.
+     */
+    int lastIndexInHand(int kind) {
+        if (getHandCount(kind) == 0) {
+            return -1;
+        }
+        for (int i = hand.size() - 1; i >= 0; i--) {
+            if (hand.get(i).getKind() == kind) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * A method to put a dropped Piece back in a Player's hand where it was, to take the drop back.
+     * @param index of type int denotes the Piece's index in hand before it was dropped.
+     * @param piece of type Piece denotes the Piece.
+     */
+    void returnToHand(int index, Piece piece) {
+        hand.add(index, piece);
+        handCounts += 1 << (piece.getKind() << 2);
+    }
+
+    /**
+     * A method to take the last Piece added out of a Player's hand, to take a capture back.
+     * @return piece of type Piece
+     */
+    Piece removeLastFromHand() {
+        Piece piece = hand.remove(hand.size() - 1);
+        handCounts -= 1 << (piece.getKind() << 2);
+        return piece;
     }
 
     /**
@@ -83,6 +164,23 @@ public class Player {
         return won;
     }
 
+    /**
+     * A setter for won, used to take back the capture of a Lion.
+     * @param won of type boolean
+     */
+    void setWon(boolean won) {
+        this.won = won;
+    }
+
+    /**
+     * A method to empty a Player's hand and clear won, for the start of a new Game.
+     */
+    void reset() {
+        hand.clear();
+        handCounts = 0;
+        won = false;
+    }
+
     /**
      * A method to define the direction, 'up' or 'down' the board, a Player 'attacks' in.
      * This is useful in order to determine a Piece's legal moves, as these - with the exception of Lion - are
@@ -0,0 +1,553 @@
+package animalchess;
+
+import java.util.Arrays;
+
+/**
+ * A class for the bitboard representation of a Shogi Game's position.
+ * Each of the HEIGHT * WIDTH Squares is one bit of an int, at index row * WIDTH + col, and the position is
+ * kept as one occupancy mask per kind of Piece, one per owner and one for promoted Pieces.
+ * @version 1
+ */
+public class Position {
+    // Kinds of Piece, used as indices into kindMasks.
+    public static final int CHICK = 0;
+    public static final int CAT = 1;
+    public static final int DOG = 2;
+    public static final int LION = 3;
+    public static final int KINDS = 4;
+
+    public static final int SQUARES = Game.HEIGHT * Game.WIDTH;
+    public static final int BOARD_MASK = (1 << SQUARES) - 1;
+
+    private final int[] kindMasks = new int[KINDS];
+    // Indexed by playerNumber.
+    private final int[] ownerMasks = new int[2];
+    private int promotedMask;
+    // Per-kind counts of Pieces in hand, 4 bits per kind, indexed by playerNumber.
+    private final int[] hands = new int[2];
+    private int sideToMove;
+    // playerNumber of the Player who captured a Lion, or -1 while the Game is ongoing.
+    private int winner = -1;
+    // Zobrist hash of everything above except winner, see Zobrist.
+    private long hash;
+    // Per side, the number of its Pieces attacking each Square, in four bit planes: bit i of
+    // attackPlanes[owner * 4 + b] is bit b of the count for Square i. No Piece's steps can be blocked, so a Piece's
+    // attacks only change when it is put or cleared, and a count is at most 8.
+    private final int[] attackPlanes = new int[8];
+    // Per side, the sum of Evaluation.pieceSquare over its Pieces and Evaluation.hand over its hand.
+    private final int[] materialScores = new int[2];
+    // A Network's first-layer sums for this Position, if one is attached.
+    private NetworkAccumulator accumulator;
+
+    // Undo records of the moves made with makeMove, see Undo.
+    private long[] undoStack = new long[64];
+    private int undoCount;
+
+    /**
+     * A constructor for an empty Position.
+     */
+    public Position() {
+    }
+
+    /**
+     * A copy constructor for the class Position.
+     * @param other of type Position denotes the Position to be copied.
+     */
+    public Position(Position other) {
+        copyFrom(other);
+    }
+
+    /**
+     * A method to overwrite this Position with another one, without allocating.
+     * @param other of type Position denotes the Position to be copied.
+     */
+    public void copyFrom(Position other) {
+        System.arraycopy(other.kindMasks, 0, kindMasks, 0, KINDS);
+        ownerMasks[0] = other.ownerMasks[0];
+        ownerMasks[1] = other.ownerMasks[1];
+        promotedMask = other.promotedMask;
+        hands[0] = other.hands[0];
+        hands[1] = other.hands[1];
+        sideToMove = other.sideToMove;
+        winner = other.winner;
+        hash = other.hash;
+        System.arraycopy(other.attackPlanes, 0, attackPlanes, 0, attackPlanes.length);
+        materialScores[0] = other.materialScores[0];
+        materialScores[1] = other.materialScores[1];
+        undoCount = 0;
+        if (accumulator != null) {
+            accumulator.refresh(this);
+        }
+    }
+
+    /**
+     * A method to get the bit index of a Square given coordinates.
+     * @param row of type int denotes the gameBoard's y coordinate or row.
+     * @param col of type int denotes the gameBoard's x coordinate of column.
+     * @return index of type int
+     */
+    public static int index(int row, int col) {
+        return row * Game.WIDTH + col;
+    }
+
+    /**
+     * A method to get the row of a bit index.
+     * @param index of type int denotes the Square's bit index.
+     * @return row of type int
+     */
+    public static int row(int index) {
+        return index / Game.WIDTH;
+    }
+
+    /**
+     * A method to get the column of a bit index.
+     * @param index of type int denotes the Square's bit index.
+     * @return col of type int
+     */
+    public static int col(int index) {
+        return index % Game.WIDTH;
+    }
+
+    /**
+     * A method to place a Piece of a given kind on a Square. The Square must be empty.
+     * @param index of type int denotes the Square's bit index.
+     * @param kind of type int denotes the kind of Piece, e.g. CHICK.
+     * @param owner of type int denotes the owner's playerNumber.
+     * @param promoted of type boolean, true if the Piece is promoted.
+     */
+    public void put(int index, int kind, int owner, boolean promoted) {
+        int bit = 1 << index;
+        kindMasks[kind] |= bit;
+        ownerMasks[owner] |= bit;
+        if (promoted) {
+            promotedMask |= bit;
+        }
+        hash ^= Zobrist.piece(kind, promoted, owner, index);
+        addAttacks(owner, MoveGenerator.attacks(kind, promoted, owner, index));
+        materialScores[owner] += Evaluation.pieceSquare(kind, promoted, owner, index);
+        if (accumulator != null) {
+            accumulator.addPiece(kind, promoted, owner, index);
+        }
+    }
+
+    /**
+     * A method to remove whatever Piece is on a Square.
+     * @param index of type int denotes the Square's bit index.
+     */
+    public void clear(int index) {
+        int owner = ownerAt(index);
+        if (owner < 0) {
+            return;
+        }
+        int kind = kindAt(index);
+        boolean promoted = isPromoted(index);
+        hash ^= Zobrist.piece(kind, promoted, owner, index);
+        removeAttacks(owner, MoveGenerator.attacks(kind, promoted, owner, index));
+        materialScores[owner] -= Evaluation.pieceSquare(kind, promoted, owner, index);
+        if (accumulator != null) {
+            accumulator.removePiece(kind, promoted, owner, index);
+        }
+        int notBit = ~(1 << index);
+        kindMasks[kind] &= notBit;
+        ownerMasks[0] &= notBit;
+        ownerMasks[1] &= notBit;
+        promotedMask &= notBit;
+    }
+
+    /**
+     * A method to remove every Piece from the board.
+     */
+    public void clearAll() {
+        for (int kind = 0; kind < KINDS; kind++) {
+            kindMasks[kind] = 0;
+        }
+        ownerMasks[0] = 0;
+        ownerMasks[1] = 0;
+        promotedMask = 0;
+        hands[0] = 0;
+        hands[1] = 0;
+        sideToMove = 0;
+        winner = -1;
+        hash = 0;
+        Arrays.fill(attackPlanes, 0);
+        materialScores[0] = 0;
+        materialScores[1] = 0;
+        if (accumulator != null) {
+            accumulator.clear();
+        }
+        undoCount = 0;
+    }
+
+    /**
+     * A method to add one to a side's attacker count of every Square in a mask, as a ripple-carry add on the bit
+     * planes.
+     * @param owner of type int denotes the attacking side's playerNumber.
+     * @param mask of type int denotes the attacked Squares.
+     */
+    private void addAttacks(int owner, int mask) {
+        int carry = mask;
+        for (int plane = owner << 2, end = plane + 4; plane < end && carry != 0; plane++) {
+            int next = attackPlanes[plane] & carry;
+            attackPlanes[plane] ^= carry;
+            carry = next;
+        }
+    }
+
+    /**
+     * A method to take one from a side's attacker count of every Square in a mask.
+     * @param owner of type int denotes the attacking side's playerNumber.
+     * @param mask of type int denotes the Squares no longer attacked by one Piece.
+     */
+    private void removeAttacks(int owner, int mask) {
+        int borrow = mask;
+        for (int plane = owner << 2, end = plane + 4; plane < end && borrow != 0; plane++) {
+            int next = ~attackPlanes[plane] & borrow;
+            attackPlanes[plane] ^= borrow;
+            borrow = next;
+        }
+    }
+
+    /**
+     * A method to add a Piece of a given kind to a Player's hand.
+     * @param owner of type int denotes the owner's playerNumber.
+     * @param kind of type int denotes the kind of Piece.
+     */
+    public void addToHand(int owner, int kind) {
+        int count = getHandCount(owner, kind);
+        hash ^= Zobrist.hand(owner, kind, count) ^ Zobrist.hand(owner, kind, count + 1);
+        materialScores[owner] += Evaluation.hand(kind, count + 1) - Evaluation.hand(kind, count);
+        if (accumulator != null) {
+            accumulator.addHand(owner, kind, count + 1);
+        }
+        hands[owner] += 1 << (kind << 2);
+    }
+
+    /**
+     * A method to remove a Piece of a given kind from a Player's hand.
+     * @param owner of type int denotes the owner's playerNumber.
+     * @param kind of type int denotes the kind of Piece.
+     */
+    public void removeFromHand(int owner, int kind) {
+        int count = getHandCount(owner, kind);
+        hash ^= Zobrist.hand(owner, kind, count) ^ Zobrist.hand(owner, kind, count - 1);
+        materialScores[owner] += Evaluation.hand(kind, count - 1) - Evaluation.hand(kind, count);
+        if (accumulator != null) {
+            accumulator.removeHand(owner, kind, count);
+        }
+        hands[owner] -= 1 << (kind << 2);
+    }
+
+    /**
+     * A method to get how many Pieces of a given kind are in a Player's hand.
+     * @param owner of type int denotes the owner's playerNumber.
+     * @param kind of type int denotes the kind of Piece.
+     * @return count of type int
+     */
+    public int getHandCount(int owner, int kind) {
+        return hands[owner] >>> (kind << 2) & 0xF;
+    }
+
+    /**
+     * A getter for a Player's hand, packed as 4 bits per kind of Piece.
+     * @param owner of type int denotes the owner's playerNumber.
+     * @return hand of type int
+     */
+    public int getHand(int owner) {
+        return hands[owner];
+    }
+
+    /**
+     * A standard getter for sideToMove.
+     * @return sideToMove of type int, the playerNumber of the Player to move.
+     */
+    public int getSideToMove() {
+        return sideToMove;
+    }
+
+    /**
+     * A standard setter for sideToMove.
+     * @param sideToMove of type int, the playerNumber of the Player to move.
+     */
+    public void setSideToMove(int sideToMove) {
+        if (sideToMove != this.sideToMove) {
+            hash ^= Zobrist.SIDE_KEY;
+        }
+        this.sideToMove = sideToMove;
+    }
+
+    /**
+     * A standard getter for winner.
+     * @return winner of type int, the playerNumber of the Player who captured a Lion, or -1.
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * A standard setter for winner.
+     * @param winner of type int, the playerNumber of the Player who captured a Lion, or -1.
+     */
+    public void setWinner(int winner) {
+        this.winner = winner;
+    }
+
+    /**
+     * A standard getter for hash, the Zobrist hash kept up to date by every change to this Position.
+     * Two Positions with the same Pieces, hands and side to move have the same hash.
+     * @return hash of type long
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * A method to compute the Zobrist hash from scratch, e.g. to check the incrementally updated one.
+     * @return hash of type long
+     */
+    public long computeHash() {
+        long fullHash = sideToMove == 1 ? Zobrist.SIDE_KEY : 0;
+        int occupied = getOccupied();
+        while (occupied != 0) {
+            int index = Integer.numberOfTrailingZeros(occupied);
+            occupied &= occupied - 1;
+            fullHash ^= Zobrist.piece(kindAt(index), isPromoted(index), ownerAt(index), index);
+        }
+        for (int owner = 0; owner < 2; owner++) {
+            for (int kind = 0; kind < KINDS; kind++) {
+                fullHash ^= Zobrist.hand(owner, kind, getHandCount(owner, kind));
+            }
+        }
+        return fullHash;
+    }
+
+    /**
+     * A method to make a move for the side to move, which must be legal (see MoveGenerator.isLegal).
+     * An undo record is pushed so that unmakeMove can restore this Position without copying it.
+     * @param move of type int denotes the move, see Moves.
+     */
+    public void makeMove(int move) {
+        int side = sideToMove;
+        int to = Moves.to(move);
+        long undo;
+
+        if (Moves.isDrop(move)) {
+            int kind = Moves.dropKind(move);
+            undo = Undo.pack(move, -1, false, false, winner, side, 0);
+            removeFromHand(side, kind);
+            put(to, kind, side, false);
+        }
+        else {
+            int from = Moves.from(move);
+            int kind = kindAt(from);
+            boolean promoted = isPromoted(from);
+            int capturedKind = kindAt(to);
+            undo = Undo.pack(move, capturedKind, capturedKind >= 0 && isPromoted(to), promoted, winner, side, 0);
+            if (capturedKind >= 0) {
+                // Same as Piece.beCaptured: the captured Piece is unpromoted and goes to the capturer's hand.
+                clear(to);
+                addToHand(side, capturedKind);
+                if (capturedKind == LION) {
+                    winner = side;
+                }
+            }
+            clear(from);
+            put(to, kind, side, promoted || Moves.isPromotion(move));
+        }
+        setSideToMove(1 - side);
+
+        if (undoCount == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoCount * 2);
+        }
+        undoStack[undoCount++] = undo;
+    }
+
+    /**
+     * A method to take back the last move made with makeMove.
+     */
+    public void unmakeMove() {
+        if (undoCount == 0) {
+            throw new IllegalStateException("There is no move to take back.");
+        }
+        long undo = undoStack[--undoCount];
+        int move = Undo.move(undo);
+        int side = Undo.side(undo);
+        int to = Moves.to(move);
+
+        if (Moves.isDrop(move)) {
+            clear(to);
+            addToHand(side, Moves.dropKind(move));
+        }
+        else {
+            int kind = kindAt(to);
+            clear(to);
+            put(Moves.from(move), kind, side, Undo.moverPromoted(undo));
+            int capturedKind = Undo.capturedKind(undo);
+            if (capturedKind >= 0) {
+                removeFromHand(side, capturedKind);
+                put(to, capturedKind, 1 - side, Undo.capturedPromoted(undo));
+            }
+        }
+        winner = Undo.winner(undo);
+        setSideToMove(side);
+    }
+
+    /**
+     * A getter for the number of moves that can be taken back with unmakeMove.
+     * @return undoCount of type int
+     */
+    public int getUndoCount() {
+        return undoCount;
+    }
+
+    /**
+     * A method to assert whether a Square is occupied by a Piece.
+     * @param index of type int denotes the Square's bit index.
+     * @return true if occupied.
+     */
+    public boolean isOccupied(int index) {
+        return ((ownerMasks[0] | ownerMasks[1]) & (1 << index)) != 0;
+    }
+
+    /**
+     * A method to get the kind of Piece on a Square.
+     * @param index of type int denotes the Square's bit index.
+     * @return kind of type int, or -1 if the Square is empty.
+     */
+    public int kindAt(int index) {
+        int bit = 1 << index;
+        for (int kind = 0; kind < KINDS; kind++) {
+            if ((kindMasks[kind] & bit) != 0) {
+                return kind;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * A method to get the owner of the Piece on a Square.
+     * @param index of type int denotes the Square's bit index.
+     * @return playerNumber of type int, or -1 if the Square is empty.
+     */
+    public int ownerAt(int index) {
+        int bit = 1 << index;
+        if ((ownerMasks[0] & bit) != 0) {
+            return 0;
+        }
+        else if ((ownerMasks[1] & bit) != 0) {
+            return 1;
+        }
+        return -1;
+    }
+
+    /**
+     * A method to assert whether the Piece on a Square is promoted.
+     * @param index of type int denotes the Square's bit index.
+     * @return true if promoted.
+     */
+    public boolean isPromoted(int index) {
+        return (promotedMask & (1 << index)) != 0;
+    }
+
+    /**
+     * A getter for the occupancy mask of every Piece on the board.
+     * @return occupied of type int
+     */
+    public int getOccupied() {
+        return ownerMasks[0] | ownerMasks[1];
+    }
+
+    /**
+     * A getter for the occupancy mask of a kind of Piece.
+     * @param kind of type int denotes the kind of Piece, e.g. CHICK.
+     * @return mask of type int
+     */
+    public int getKindMask(int kind) {
+        return kindMasks[kind];
+    }
+
+    /**
+     * A getter for the occupancy mask of a Player's Pieces.
+     * @param owner of type int denotes the owner's playerNumber.
+     * @return mask of type int
+     */
+    public int getOwnerMask(int owner) {
+        return ownerMasks[owner];
+    }
+
+    /**
+     * A method to attach a Network's accumulator, which this Position then keeps up to date, see Network.
+     * @param accumulator of type NetworkAccumulator, or null to detach it.
+     */
+    public void setAccumulator(NetworkAccumulator accumulator) {
+        this.accumulator = accumulator;
+        if (accumulator != null) {
+            accumulator.refresh(this);
+        }
+    }
+
+    /**
+     * A standard getter for accumulator.
+     * @return accumulator of type NetworkAccumulator, or null if none is attached.
+     */
+    public NetworkAccumulator getAccumulator() {
+        return accumulator;
+    }
+
+    /**
+     * A getter for a side's material and piece-square score, see Evaluation.
+     * @param owner of type int denotes the side's playerNumber.
+     * @return score of type int
+     */
+    public int getMaterialScore(int owner) {
+        return materialScores[owner];
+    }
+
+    /**
+     * A method to get the Squares a side attacks, i.e. could move a Piece to if they were empty.
+     * @param owner of type int denotes the attacking side's playerNumber.
+     * @return mask of type int
+     */
+    public int getAttacks(int owner) {
+        int plane = owner << 2;
+        return attackPlanes[plane] | attackPlanes[plane + 1] | attackPlanes[plane + 2] | attackPlanes[plane + 3];
+    }
+
+    /**
+     * A method to assert whether a side attacks a Square.
+     * @param index of type int denotes the Square's bit index.
+     * @param owner of type int denotes the attacking side's playerNumber.
+     * @return true if at least one of the side's Pieces attacks the Square.
+     */
+    public boolean isAttacked(int index, int owner) {
+        return (getAttacks(owner) >>> index & 1) != 0;
+    }
+
+    /**
+     * A method to count how many of a side's Pieces attack a Square.
+     * @param index of type int denotes the Square's bit index.
+     * @param owner of type int denotes the attacking side's playerNumber.
+     * @return count of type int
+     */
+    public int getAttackerCount(int index, int owner) {
+        int plane = owner << 2;
+        return (attackPlanes[plane] >>> index & 1) | (attackPlanes[plane + 1] >>> index & 1) << 1
+                | (attackPlanes[plane + 2] >>> index & 1) << 2 | (attackPlanes[plane + 3] >>> index & 1) << 3;
+    }
+
+    /**
+     * A method to assert whether a side's Lion could be captured by the opponent's next move.
+     * @param owner of type int denotes the Lion's owner's playerNumber.
+     * @return true if the opponent attacks the Lion.
+     */
+    public boolean isLionInDanger(int owner) {
+        return (kindMasks[LION] & ownerMasks[owner] & getAttacks(1 - owner)) != 0;
+    }
+
+    /**
+     * A getter for the occupancy mask of promoted Pieces.
+     * @return promotedMask of type int
+     */
+    public int getPromotedMask() {
+        return promotedMask;
+    }
+}
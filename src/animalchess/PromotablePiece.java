@@ -27,11 +27,23 @@ public abstract class PromotablePiece extends Piece {
             return promoted; // Boolean... see setPromoted
     }
 
+    /**
+     * Override of isPromoted in superclass Piece.
+     * @return true if Piece has been promoted.
+     */
+    @Override
+    boolean isPromoted() {
+        return promoted;
+    }
+
     /** A setter for a Piece's promoted attribute, which is set to true.
      * @param promoted of type boolean
      */
     public void setPromoted(boolean promoted) {
         this.promoted = promoted;
+        if (getSquare() != null) {
+            getSquare().syncPosition();
+        }
     }
 
     /**
@@ -74,13 +86,12 @@ public abstract class PromotablePiece extends Piece {
     }
 
     /**
-     * Override of move in Piece because PromotablePiece, if moved to Square in this Player's promotion zone,
-     * is promoted.
-     * @param toSquare of type Square denotes the Square to be moved to.
+     * Override of arrive in Piece because PromotablePiece, if moved to a Square in this Player's promotion zone,
+     * is promoted. Promoting here, before the move is reported, means the Game records the promoted Piece.
+     * @param toSquare of type Square denotes the Square moved to.
      */
     @Override
-    public void move(Square toSquare) {
-        super.move((toSquare)); // Everything that is defined in move in superclass Piece
+    void arrive(Square toSquare) {
         if (toSquare.isPromotionZone(getOwner())) {
             setPromoted(true);
         }
@@ -0,0 +1,410 @@
+package animalchess;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A class for a depth-first proof-number (df-pn) solver, which proves or disproves that the side to move can force
+ * the capture of the opponent's Lion, however long the line.
+ * <p>
+ * Every node has a proof and a disproof number: how many more leaves must at least be solved to prove or disprove
+ * it. The search always expands the most-proving node, but depth first, returning only when a threshold is
+ * crossed, and remembers the numbers of the nodes it leaves in an off-heap table. The table's size is the solver's
+ * memory bound. Nodes are stored as (phi, delta), the proof and disproof numbers from the side to move's point of
+ * view, so attacking and defending nodes are handled alike.
+ * <p>
+ * By default the attacker is restricted to moves that capture the Lion or attack it (checks), as in tsume
+ * problems, which keeps the tree narrow enough for long forcing lines; a proof is then a forced win by checks.
+ * A position repeated on the current line counts as a failure for the attacker. Such a failure may not hold on
+ * another line to the same position, so failures that rest on one are not stored, and PROVEN and DISPROVEN are
+ * always sound; UNKNOWN is returned when a limit is reached.
+ * @version 1
+ */
+public class ProofNumberSearch {
+    public static final int PROVEN = 1;
+    public static final int DISPROVEN = -1;
+    public static final int UNKNOWN = 0;
+
+    // Proof numbers are 28 bits; INFINITY marks a solved node.
+    static final int INFINITY = (1 << 28) - 1;
+    private static final long NUMBER_MASK = INFINITY;
+    private static final int DELTA_SHIFT = 28;
+    private static final int WORK_SHIFT = 56;
+
+    private static final int ENTRY_BYTES = 16;
+    private static final int BUCKET_ENTRIES = 4;
+    private static final int BUCKET_BYTES = ENTRY_BYTES * BUCKET_ENTRIES;
+    private static final int CHUNK_BUCKET_BITS = 24;
+    private static final int MAX_DEPTH = 256;
+    private static final int CHECK_INTERVAL = 1023;
+    private static final long ATTACKER_KEY = 0x6A09E667F3BCC908L;
+    private static final long CHECKS_ONLY_KEY = 0xBB67AE8584CAA73BL;
+
+    private final ByteBuffer[] chunks;
+    private final long bucketMask;
+    private final int chunkBucketBits;
+
+    private final Position position = new Position();
+    private final int[][] moveBuffers = new int[MAX_DEPTH][MoveGenerator.MAX_MOVES];
+    private final int[][] childPhi = new int[MAX_DEPTH][MoveGenerator.MAX_MOVES];
+    private final int[][] childDelta = new int[MAX_DEPTH][MoveGenerator.MAX_MOVES];
+    // The number of moves in each ply's buffers.
+    private final int[] moveCounts = new int[MAX_DEPTH];
+    private final long[] path = new long[MAX_DEPTH];
+
+    private boolean checksOnly = true;
+    private long nodeLimit = Long.MAX_VALUE;
+    private long timeLimitMillis = Long.MAX_VALUE;
+    private long deadline;
+    private long nodes;
+    private boolean aborted;
+    private int attacker;
+    // Set by generate when a child repeats a position of the current line.
+    private boolean repetitionMet;
+    // The numbers of the node search last returned from.
+    private int resultPhi;
+    private int resultDelta;
+    private int bestMove;
+
+    /**
+     * A constructor for the class ProofNumberSearch.
+     * @param megabytes of type long denotes the size of the table, rounded down to a power of two buckets.
+     */
+    public ProofNumberSearch(long megabytes) {
+        long buckets = Long.highestOneBit(Math.max(1, megabytes * 1024 * 1024 / BUCKET_BYTES));
+        this.bucketMask = buckets - 1;
+        this.chunkBucketBits = Math.min(CHUNK_BUCKET_BITS, Long.numberOfTrailingZeros(buckets));
+        this.chunks = new ByteBuffer[(int) (buckets >>> chunkBucketBits)];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = ByteBuffer.allocateDirect(BUCKET_BYTES << chunkBucketBits).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    /**
+     * A method to solve the position of a Game for the Player to move. The Game itself is not changed.
+     * @param game of type Game
+     * @return result of type int, PROVEN, DISPROVEN or UNKNOWN if a limit was reached.
+     */
+    public int solve(Game game) {
+        return solve(game.getPosition());
+    }
+
+    /**
+     * A method to solve a Position for the side to move. The Position itself is not changed.
+     * @param root of type Position
+     * @return result of type int, PROVEN, DISPROVEN or UNKNOWN if a limit was reached.
+     */
+    public int solve(Position root) {
+        position.copyFrom(root);
+        attacker = root.getSideToMove();
+        nodes = 0;
+        aborted = false;
+        bestMove = 0;
+        deadline = timeLimitMillis == Long.MAX_VALUE
+                ? Long.MAX_VALUE : System.nanoTime() + timeLimitMillis * 1_000_000;
+        if (root.getWinner() >= 0) {
+            return root.getWinner() == attacker ? PROVEN : DISPROVEN;
+        }
+
+        path[0] = position.getHash();
+        search(0, INFINITY, INFINITY);
+        if (aborted) {
+            return UNKNOWN;
+        }
+        int phi = resultPhi;
+        if (phi == 0) {
+            // The move to a child whose delta is 0 proves the root. The root's buffers still hold the children's
+            // final numbers, which the table may since have lost.
+            for (int i = 0; i < moveCounts[0]; i++) {
+                if (childDelta[0][i] == 0) {
+                    bestMove = moveBuffers[0][i];
+                    break;
+                }
+            }
+            return PROVEN;
+        }
+        return phi == INFINITY ? DISPROVEN : UNKNOWN;
+    }
+
+    /**
+     * A method to search a node until its phi or delta reaches a threshold (MID in the df-pn literature).
+     * @param ply of type int denotes the distance from the root.
+     * @param phiThreshold of type int
+     * @param deltaThreshold of type int
+     * @return tainted of type boolean, true if a repetition on the current line was met below this node.
+     */
+    private boolean search(int ply, int phiThreshold, int deltaThreshold) {
+        if (++nodes >= nodeLimit || ((nodes & CHECK_INTERVAL) == 0 && System.nanoTime() >= deadline)) {
+            aborted = true;
+        }
+        if (aborted) {
+            resultPhi = 1;
+            resultDelta = 1;
+            return false;
+        }
+        long hash = key(position.getHash());
+        long startNodes = nodes;
+        boolean attackerToMove = position.getSideToMove() == attacker;
+        repetitionMet = false;
+        int count = generate(ply);
+        moveCounts[ply] = count;
+        boolean tainted = repetitionMet;
+        int[] moves = moveBuffers[ply];
+        int[] phis = childPhi[ply];
+        int[] deltas = childDelta[ply];
+
+        while (true) {
+            int phi = INFINITY;
+            int delta = 0;
+            int best = -1;
+            int secondDelta = INFINITY;
+            for (int i = 0; i < count; i++) {
+                if (deltas[i] < phi) {
+                    secondDelta = phi;
+                    phi = deltas[i];
+                    best = i;
+                }
+                else if (deltas[i] < secondDelta) {
+                    secondDelta = deltas[i];
+                }
+                delta = add(delta, phis[i]);
+            }
+            if (phi >= phiThreshold || delta >= deltaThreshold || aborted) {
+                storeResult(hash, phi, delta, attackerToMove, tainted, nodes - startNodes);
+                resultPhi = phi;
+                resultDelta = delta;
+                return tainted;
+            }
+
+            int childPhiThreshold = add(deltaThreshold - delta, phis[best]);
+            int childDeltaThreshold = Math.min(phiThreshold, add(secondDelta, 1));
+            position.makeMove(moves[best]);
+            path[ply + 1] = position.getHash();
+            tainted |= search(ply + 1, childPhiThreshold, childDeltaThreshold);
+            position.unmakeMove();
+            // The child's numbers as returned hold for this line even when they were not stored.
+            phis[best] = resultPhi;
+            deltas[best] = resultDelta;
+        }
+    }
+
+    /**
+     * A method to store a node's numbers. A failure of the attacker that came from a repetition on the current
+     * line might not be one on another line to the same position, so it is not stored; a success of the attacker
+     * never depends on a repetition.
+     * @param key of type long denotes the node's key.
+     * @param phi of type int
+     * @param delta of type int
+     * @param attackerToMove of type boolean, true if the attacker is to move at the node.
+     * @param tainted of type boolean, true if a repetition was met below the node.
+     * @param work of type long denotes the number of nodes searched below the node.
+     */
+    private void storeResult(long key, int phi, int delta, boolean attackerToMove, boolean tainted, long work) {
+        if (tainted && (attackerToMove ? phi : delta) == INFINITY) {
+            return;
+        }
+        store(key, phi, delta, work);
+    }
+
+    /**
+     * A method to generate the moves of the node at a ply, and the children's phi and delta from the table, or
+     * for a child that ends the game.
+     * @param ply of type int denotes the distance from the root.
+     * @return count of type int, the number of moves.
+     */
+    private int generate(int ply) {
+        int side = position.getSideToMove();
+        int[] moves = moveBuffers[ply];
+        int[] phis = childPhi[ply];
+        int[] deltas = childDelta[ply];
+        int all = MoveGenerator.generateAll(position, side, moves, 0);
+        int count = 0;
+        for (int i = 0; i < all; i++) {
+            int move = moves[i];
+            position.makeMove(move);
+            boolean keep = side != attacker || !checksOnly || position.getWinner() >= 0
+                    || position.isLionInDanger(1 - side);
+            if (keep) {
+                moves[count] = move;
+                if (position.getWinner() >= 0) {
+                    // The side to move in the child has lost its Lion.
+                    phis[count] = INFINITY;
+                    deltas[count] = 0;
+                }
+                else if (ply + 1 >= MAX_DEPTH - 1 || isRepetition(ply + 1, position.getHash())) {
+                    // A failure for the attacker, whoever is to move in the child.
+                    repetitionMet = true;
+                    boolean attackerToMove = position.getSideToMove() == attacker;
+                    phis[count] = attackerToMove ? INFINITY : 0;
+                    deltas[count] = attackerToMove ? 0 : INFINITY;
+                }
+                else {
+                    long entry = probe(key(position.getHash()));
+                    phis[count] = entry == 0 ? 1 : phi(entry);
+                    deltas[count] = entry == 0 ? 1 : delta(entry);
+                }
+                count++;
+            }
+            position.unmakeMove();
+        }
+        return count;
+    }
+
+    /**
+     * A method to make a Position's key in the table. A node's numbers depend on which side is attacking and on
+     * whether the attacker is restricted to checks, so both are mixed in.
+     * @param hash of type long denotes the Position's hash.
+     * @return key of type long
+     */
+    private long key(long hash) {
+        return hash ^ (attacker == 0 ? 0 : ATTACKER_KEY) ^ (checksOnly ? CHECKS_ONLY_KEY : 0);
+    }
+
+    /**
+     * A method to assert whether a position already occurs on the current line.
+     * @param ply of type int denotes the position's distance from the root.
+     * @param hash of type long denotes the position's hash.
+     * @return true if it does.
+     */
+    private boolean isRepetition(int ply, long hash) {
+        for (int i = ply - 2; i >= 0; i -= 2) {
+            if (path[i] == hash) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A method to add proof numbers, saturating below INFINITY unless either is INFINITY.
+     * @param a of type int
+     * @param b of type int
+     * @return sum of type int
+     */
+    private static int add(int a, int b) {
+        if (a >= INFINITY || b >= INFINITY) {
+            return INFINITY;
+        }
+        return Math.min(INFINITY - 1, a + b);
+    }
+
+    /**
+     * A method to find a Position's entry.
+     * @param key of type long denotes the Position's hash.
+     * @return data of type long, or 0 if there is no entry.
+     */
+    private long probe(long key) {
+        ByteBuffer chunk = chunks[(int) ((key & bucketMask) >>> chunkBucketBits)];
+        int bucket = (int) (key & bucketMask & ((1L << chunkBucketBits) - 1)) * BUCKET_BYTES;
+        for (int i = 0; i < BUCKET_ENTRIES; i++) {
+            int offset = bucket + i * ENTRY_BYTES;
+            long data = chunk.getLong(offset + 8);
+            if (data != 0 && chunk.getLong(offset) == key) {
+                return data;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * A method to store a Position's numbers, over its old entry or else the entry of the bucket with the least
+     * work behind it.
+     * @param key of type long denotes the Position's hash.
+     * @param phi of type int
+     * @param delta of type int
+     * @param work of type long denotes the number of nodes searched below the Position.
+     */
+    private void store(long key, int phi, int delta, long work) {
+        ByteBuffer chunk = chunks[(int) ((key & bucketMask) >>> chunkBucketBits)];
+        int bucket = (int) (key & bucketMask & ((1L << chunkBucketBits) - 1)) * BUCKET_BYTES;
+        int replace = bucket;
+        long leastWork = Long.MAX_VALUE;
+        for (int i = 0; i < BUCKET_ENTRIES; i++) {
+            int offset = bucket + i * ENTRY_BYTES;
+            long data = chunk.getLong(offset + 8);
+            if (data == 0 || chunk.getLong(offset) == key) {
+                replace = offset;
+                break;
+            }
+            long entryWork = data >>> WORK_SHIFT;
+            if (entryWork < leastWork) {
+                leastWork = entryWork;
+                replace = offset;
+            }
+        }
+        // The work is kept as its bit length, so that it fits in 8 bits.
+        long data = phi | (long) delta << DELTA_SHIFT
+                | (long) (64 - Long.numberOfLeadingZeros(work + 1)) << WORK_SHIFT;
+        chunk.putLong(replace, key);
+        chunk.putLong(replace + 8, data);
+    }
+
+    /**
+     * A method to read phi from an entry's data.
+     * @param data of type long
+     * @return phi of type int
+     */
+    private static int phi(long data) {
+        return (int) (data & NUMBER_MASK);
+    }
+
+    /**
+     * A method to read delta from an entry's data.
+     * @param data of type long
+     * @return delta of type int
+     */
+    private static int delta(long data) {
+        return (int) (data >>> DELTA_SHIFT & NUMBER_MASK);
+    }
+
+    /**
+     * A method to empty the table.
+     */
+    public void clear() {
+        for (ByteBuffer chunk : chunks) {
+            for (int offset = 0; offset < chunk.capacity(); offset += 8) {
+                chunk.putLong(offset, 0);
+            }
+        }
+    }
+
+    /**
+     * A standard setter for checksOnly.
+     * @param checksOnly of type boolean, true to restrict the attacker to Lion captures and checks.
+     */
+    public void setChecksOnly(boolean checksOnly) {
+        this.checksOnly = checksOnly;
+    }
+
+    /**
+     * A standard setter for nodeLimit.
+     * @param nodeLimit of type long denotes the most nodes a solve may visit.
+     */
+    public void setNodeLimit(long nodeLimit) {
+        this.nodeLimit = nodeLimit;
+    }
+
+    /**
+     * A standard setter for timeLimitMillis.
+     * @param timeLimitMillis of type long denotes how long a solve may take, in milliseconds.
+     */
+    public void setTimeLimit(long timeLimitMillis) {
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    /**
+     * A getter for the first move of the last proof.
+     * @return move of type int, see Moves, or 0 if the last solve did not prove a win.
+     */
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    /**
+     * A getter for the number of nodes visited by the last solve.
+     * @return nodes of type long
+     */
+    public long getNodes() {
+        return nodes;
+    }
+}
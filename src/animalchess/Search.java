@@ -0,0 +1,543 @@
+package animalchess;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A class for an alpha-beta search engine over a Position. It searches with negamax alpha-beta and iterative
+ * deepening, narrows each iteration with an aspiration window and orders moves by transposition table move,
+ * Lion captures, other captures (most valuable victim first), killer moves and the history heuristic.
+ * A search stops at the maximum depth, the node budget or the deadline, whichever comes first.
+ * A Search is not thread-safe, but several Searches may share one TranspositionTable.
+ * @version 1
+ */
+public class Search {
+    // Score of capturing a Lion at the root; a Lion captured n plies deeper scores MATE - n.
+    public static final int MATE = 30000;
+    public static final int INFINITY = MATE + 1;
+    static final int MAX_PLY = 64;
+
+    private static final int ASPIRATION_WINDOW = 50;
+    private static final int TT_MOVE_SCORE = 1 << 30;
+    private static final int LION_CAPTURE_SCORE = 1 << 29;
+    private static final int CAPTURE_SCORE = 1 << 28;
+    private static final int KILLER_SCORE = 1 << 27;
+    private static final int CHECK_INTERVAL = 1023;
+
+    private final TranspositionTable table;
+    private final Position position = new Position();
+    // One move buffer and score buffer per ply, so searching allocates nothing.
+    private final int[][] moveBuffers = new int[MAX_PLY + 1][MoveGenerator.MAX_MOVES];
+    private final int[][] orderScores = new int[MAX_PLY + 1][MoveGenerator.MAX_MOVES];
+    private final int[][] killers = new int[MAX_PLY + 1][2];
+    // Indexed by side * 2^14 + the move's low 14 bits.
+    private final int[] history = new int[2 << 14];
+
+    private int maxDepth = MAX_PLY;
+    private long nodeLimit = Long.MAX_VALUE;
+    private long timeLimitMillis = Long.MAX_VALUE;
+    private AtomicBoolean stopSignal = new AtomicBoolean();
+    // Evaluates leaves instead of Evaluation if set.
+    private Network network;
+    // Shuffles the root moves if set, see setRandom.
+    private SplittableRandom random;
+    // Iterations skipped by a ParallelSearch helper, see setDepthSkip; a skipSize of 0 skips none.
+    private int skipSize;
+    private int skipPhase;
+
+    private long deadline;
+    private long nodes;
+    private boolean aborted;
+    private int bestMove;
+    // Best move of the root iteration in progress.
+    private int rootBest;
+    private int bestScore;
+    private int completedDepth;
+
+    /**
+     * A constructor for the class Search.
+     * @param table of type TranspositionTable denotes the table to use, which may be shared with other Searches.
+     */
+    public Search(TranspositionTable table) {
+        this.table = table;
+    }
+
+    /**
+     * A method to find the best move for a Player in a Game. The Game itself is not changed.
+     * @param game of type Game denotes the Game to search.
+     * @param player of type Player denotes the Player to move.
+     * @return move of type int, see Moves, or 0 if the Player has no move.
+     */
+    public int findBestMove(Game game, Player player) {
+        Position root = new Position(game.getPosition());
+        root.setSideToMove(player.getPlayerNumber());
+        return findBestMove(root);
+    }
+
+    /**
+     * A method to find the best move for the side to move in a Position. The Position itself is not changed.
+     * @param root of type Position denotes the Position to search.
+     * @return move of type int, see Moves, or 0 if there is no move.
+     */
+    public int findBestMove(Position root) {
+        position.copyFrom(root);
+        nodes = 0;
+        aborted = false;
+        bestMove = 0;
+        bestScore = 0;
+        completedDepth = 0;
+        deadline = timeLimitMillis == Long.MAX_VALUE
+                ? Long.MAX_VALUE : System.nanoTime() + timeLimitMillis * 1_000_000;
+        for (int[] plyKillers : killers) {
+            plyKillers[0] = 0;
+            plyKillers[1] = 0;
+        }
+        // Age the history of earlier searches rather than forget it.
+        for (int i = 0; i < history.length; i++) {
+            history[i] >>= 2;
+        }
+
+        int[] rootMoves = moveBuffers[0];
+        int rootCount = MoveGenerator.generateAll(position, position.getSideToMove(), rootMoves, 0);
+        if (rootCount == 0) {
+            return 0;
+        }
+        bestMove = rootMoves[0];
+
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            if (skipSize > 0 && ((depth + skipPhase) / skipSize & 1) != 0) {
+                continue;
+            }
+            int score = aspirationSearch(depth);
+            if (aborted) {
+                break;
+            }
+            bestScore = score;
+            bestMove = rootBest;
+            completedDepth = depth;
+            if (Math.abs(score) >= MATE - MAX_PLY) {
+                // A forced Lion capture has been found for one side; deeper iterations cannot change that.
+                break;
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * A method to search the root at one depth, starting with a narrow window around the previous score and
+     * widening it until the score falls inside.
+     * @param depth of type int denotes the depth to search.
+     * @return score of type int
+     */
+    private int aspirationSearch(int depth) {
+        if (depth < 3) {
+            return negamax(depth, -INFINITY, INFINITY, 0);
+        }
+        int delta = ASPIRATION_WINDOW;
+        int alpha = Math.max(bestScore - delta, -INFINITY);
+        int beta = Math.min(bestScore + delta, INFINITY);
+        while (true) {
+            int score = negamax(depth, alpha, beta, 0);
+            if (aborted) {
+                return score;
+            }
+            if (score <= alpha) {
+                alpha = Math.max(alpha - delta, -INFINITY);
+            }
+            else if (score >= beta) {
+                beta = Math.min(beta + delta, INFINITY);
+            }
+            else {
+                return score;
+            }
+            delta *= 2;
+        }
+    }
+
+    /**
+     * The negamax alpha-beta search.
+     * @param depth of type int denotes the remaining depth.
+     * @param alpha of type int denotes the lower bound.
+     * @param beta of type int denotes the upper bound.
+     * @param ply of type int denotes the distance from the root.
+     * @return score of type int, from the point of view of the side to move.
+     */
+    private int negamax(int depth, int alpha, int beta, int ply) {
+        if (position.getWinner() >= 0) {
+            // The previous move captured a Lion.
+            return -MATE + ply;
+        }
+        if (depth <= 0 || ply >= MAX_PLY) {
+            return quiesce(alpha, beta, ply);
+        }
+        if (countNode()) {
+            return 0;
+        }
+
+        long key = position.getHash();
+        long entry = table.probe(key);
+        int ttMove = 0;
+        if (entry != 0) {
+            ttMove = TranspositionTable.move(entry);
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.BOUND_EXACT
+                        || (bound == TranspositionTable.BOUND_LOWER && score >= beta)
+                        || (bound == TranspositionTable.BOUND_UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int side = position.getSideToMove();
+        int[] moves = moveBuffers[ply];
+        int count = MoveGenerator.generateAll(position, side, moves, 0);
+        if (count == 0) {
+            // No Piece can move and none is in hand: treat it as lost.
+            return -MATE + ply;
+        }
+        if (ply == 0 && random != null) {
+            // The table's move would be searched first and so win every tie.
+            shuffle(moves, count);
+            ttMove = 0;
+        }
+        scoreMoves(moves, count, ply, ttMove, false);
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMoveHere = 0;
+        for (int i = 0; i < count; i++) {
+            int move = pickNext(moves, orderScores[ply], i, count);
+            boolean quiet = !isCapture(move);
+            position.makeMove(move);
+            int score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+            position.unmakeMove();
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMoveHere = move;
+                if (ply == 0) {
+                    rootBest = move;
+                }
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+            if (alpha >= beta) {
+                if (quiet) {
+                    if (killers[ply][0] != move) {
+                        killers[ply][1] = killers[ply][0];
+                        killers[ply][0] = move;
+                    }
+                    history[historyIndex(side, move)] += depth * depth;
+                }
+                break;
+            }
+        }
+
+        int bound = best <= originalAlpha ? TranspositionTable.BOUND_UPPER
+                : best >= beta ? TranspositionTable.BOUND_LOWER : TranspositionTable.BOUND_EXACT;
+        table.store(key, bestMoveHere, toTable(best, ply), depth, bound);
+        return best;
+    }
+
+    /**
+     * A search of captures only, so that positions are evaluated once no Piece is left hanging.
+     * @param alpha of type int denotes the lower bound.
+     * @param beta of type int denotes the upper bound.
+     * @param ply of type int denotes the distance from the root.
+     * @return score of type int, from the point of view of the side to move.
+     */
+    private int quiesce(int alpha, int beta, int ply) {
+        if (position.getWinner() >= 0) {
+            return -MATE + ply;
+        }
+        if (countNode()) {
+            return 0;
+        }
+        int standPat = evaluate();
+        if (standPat >= beta || ply >= MAX_PLY) {
+            return standPat;
+        }
+        if (standPat > alpha) {
+            alpha = standPat;
+        }
+
+        int[] moves = moveBuffers[ply];
+        int count = MoveGenerator.generateMoves(position, position.getSideToMove(), moves, 0);
+        scoreMoves(moves, count, ply, 0, true);
+        for (int i = 0; i < count; i++) {
+            int move = pickNext(moves, orderScores[ply], i, count);
+            if (!isCapture(move)) {
+                // Captures were ordered first, so the rest are quiet.
+                break;
+            }
+            position.makeMove(move);
+            int score = -quiesce(-beta, -alpha, ply + 1);
+            position.unmakeMove();
+            if (aborted) {
+                return 0;
+            }
+            if (score >= beta) {
+                return score;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+        }
+        return alpha;
+    }
+
+    /**
+     * A method to count a node and, every CHECK_INTERVAL + 1 nodes, check the node budget, the deadline and the
+     * stop signal.
+     * @return true if the search must stop.
+     */
+    private boolean countNode() {
+        if ((++nodes & CHECK_INTERVAL) == 0
+                && (nodes >= nodeLimit || System.nanoTime() >= deadline || stopSignal.get())) {
+            aborted = true;
+        }
+        return aborted;
+    }
+
+    /**
+     * A method to give each move an ordering score.
+     * @param moves of type int[] denotes the moves.
+     * @param count of type int denotes the number of moves.
+     * @param ply of type int denotes the distance from the root.
+     * @param ttMove of type int denotes the transposition table's best move, or 0.
+     * @param capturesOnly of type boolean, true if only the captures need a meaningful score.
+     */
+    private void scoreMoves(int[] moves, int count, int ply, int ttMove, boolean capturesOnly) {
+        int[] scores = orderScores[ply];
+        int side = position.getSideToMove();
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            int victim = Moves.isDrop(move) ? -1 : position.kindAt(Moves.to(move));
+            if (move == ttMove) {
+                scores[i] = TT_MOVE_SCORE;
+            }
+            else if (victim == Position.LION) {
+                scores[i] = LION_CAPTURE_SCORE;
+            }
+            else if (victim >= 0) {
+                // Most valuable victim first, then least valuable attacker.
+                int attacker = position.kindAt(Moves.from(move));
+                scores[i] = CAPTURE_SCORE + valueOn(victim, Moves.to(move)) * 16
+                        - Evaluation.PIECE_VALUES[attacker] / 16;
+            }
+            else if (capturesOnly) {
+                scores[i] = 0;
+            }
+            else if (move == killers[ply][0]) {
+                scores[i] = KILLER_SCORE + 1;
+            }
+            else if (move == killers[ply][1]) {
+                scores[i] = KILLER_SCORE;
+            }
+            else {
+                scores[i] = Math.min(history[historyIndex(side, move)], KILLER_SCORE - 1);
+            }
+        }
+    }
+
+    /**
+     * A method to put moves in a random order, a Fisher-Yates shuffle.
+     * @param moves of type int[] denotes the moves.
+     * @param count of type int denotes the number of moves.
+     */
+    private void shuffle(int[] moves, int count) {
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int move = moves[i];
+            moves[i] = moves[j];
+            moves[j] = move;
+        }
+    }
+
+    /**
+     * A method to swap the best-scored of the remaining moves into place, a lazy selection sort that does no work
+     * for moves that are never searched after a cutoff.
+     * @param moves of type int[] denotes the moves.
+     * @param scores of type int[] denotes their ordering scores.
+     * @param from of type int denotes the index to fill.
+     * @param count of type int denotes the number of moves.
+     * @return move of type int, the move now at index from.
+     */
+    private static int pickNext(int[] moves, int[] scores, int from, int count) {
+        int best = from;
+        for (int i = from + 1; i < count; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        int move = moves[best];
+        moves[best] = moves[from];
+        moves[from] = move;
+        int score = scores[best];
+        scores[best] = scores[from];
+        scores[from] = score;
+        return move;
+    }
+
+    /**
+     * A method to assert whether a move captures a Piece in the current position.
+     * @param move of type int
+     * @return true if it is a capture.
+     */
+    private boolean isCapture(int move) {
+        return !Moves.isDrop(move) && position.isOccupied(Moves.to(move));
+    }
+
+    /**
+     * A method to get the index of a move in history.
+     * @param side of type int denotes the moving Player's playerNumber.
+     * @param move of type int
+     * @return index of type int
+     */
+    private static int historyIndex(int side, int move) {
+        return side << 14 | (move & 0x3FFF);
+    }
+
+    /**
+     * A method to get the material value of the Piece on a Square.
+     * @param kind of type int denotes the kind of Piece.
+     * @param index of type int denotes the Square's bit index.
+     * @return value of type int
+     */
+    private int valueOn(int kind, int index) {
+        return position.isPromoted(index) ? Evaluation.PROMOTED_VALUE : Evaluation.PIECE_VALUES[kind];
+    }
+
+    /**
+     * A method to evaluate the current position, see Evaluation and Network.
+     * @return score of type int, relative to the side to move.
+     */
+    private int evaluate() {
+        return network != null ? network.evaluate(position) : Evaluation.evaluate(position);
+    }
+
+    /**
+     * A method to turn a score relative to this node into one relative to the node stored, so that a Lion capture
+     * found via a transposition keeps the right distance.
+     * @param score of type int
+     * @param ply of type int denotes the distance from the root.
+     * @return score of type int
+     */
+    private static int toTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -MATE + MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    /**
+     * The inverse of toTable.
+     * @param score of type int
+     * @param ply of type int denotes the distance from the root.
+     * @return score of type int
+     */
+    private static int fromTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -MATE + MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * A standard setter for maxDepth.
+     * @param maxDepth of type int denotes the deepest iteration, at most MAX_PLY.
+     */
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = Math.min(maxDepth, MAX_PLY);
+    }
+
+    /**
+     * A standard setter for nodeLimit.
+     * @param nodeLimit of type long denotes the node budget of a search.
+     */
+    public void setNodeLimit(long nodeLimit) {
+        this.nodeLimit = nodeLimit;
+    }
+
+    /**
+     * A method to evaluate with a Network instead of Evaluation. The Network's accumulator is kept up to date as
+     * the search makes and takes back moves.
+     * @param network of type Network, or null to go back to Evaluation.
+     */
+    public void setNetwork(Network network) {
+        this.network = network;
+        position.setAccumulator(network == null ? null : network.newAccumulator());
+    }
+
+    /**
+     * A method to shuffle the root moves, and order them without the TranspositionTable move. The first of several
+     * moves with the best score is the one played, so a seeded random makes the choice among them vary from seed to
+     * seed, e.g. for self-play.
+     * @param random of type SplittableRandom, or null to search the root moves in generation order.
+     */
+    public void setRandom(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * A method to make iterative deepening skip some depths: the depths are taken in blocks of size, the first of
+     * them shifted by phase, and every other block is skipped. ParallelSearch gives each helper its own pattern.
+     * @param size of type int denotes the length of a block, or 0 to search every depth.
+     * @param phase of type int denotes how far the blocks are shifted, less than 2 * size.
+     */
+    void setDepthSkip(int size, int phase) {
+        this.skipSize = size;
+        this.skipPhase = phase;
+    }
+
+    /**
+     * A standard setter for timeLimitMillis.
+     * @param timeLimitMillis of type long denotes how long a search may take, in milliseconds.
+     */
+    public void setTimeLimit(long timeLimitMillis) {
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    /**
+     * A standard setter for stopSignal, which stops the search as soon as it is set to true.
+     * @param stopSignal of type AtomicBoolean
+     */
+    public void setStopSignal(AtomicBoolean stopSignal) {
+        this.stopSignal = stopSignal;
+    }
+
+    /**
+     * A standard getter for bestScore.
+     * @return bestScore of type int, the score of the best move at the deepest completed depth.
+     */
+    public int getBestScore() {
+        return bestScore;
+    }
+
+    /**
+     * A standard getter for completedDepth.
+     * @return completedDepth of type int, the deepest iteration that was searched in full.
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * A standard getter for nodes.
+     * @return nodes of type long, the number of nodes visited by the last search.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+}
@@ -0,0 +1,282 @@
+package animalchess;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongFunction;
+
+/**
+ * A class for playing many complete games between two policies, sharded across threads, to generate training and
+ * balancing data. Every game starts from the starting position and runs until a Lion is captured, the side to move
+ * has no move, a position is repeated REPETITIONS_FOR_DRAW times, or a move cap is reached, which counts as a draw.
+ * <p>
+ * Games are played on a Position with MoveGenerator rather than on a Game, so that a game allocates nothing; the
+ * starting position is that of new Game, and repetitions are judged by Game's rules: a draw, unless one Player
+ * checked on every move in between and so loses.
+ * @version 1
+ */
+public class SelfPlay {
+    private static final int[] CAPTURE_VALUES = {1, 3, 4, 100};
+
+    /**
+     * An interface for a way of choosing moves. A Policy is used by one thread only.
+     */
+    public interface Policy {
+        /**
+         * A method to choose one of the legal moves of the side to move.
+         * @param position of type Position denotes the position, which must be left unchanged.
+         * @param moves of type int[] denotes the legal moves, see Moves.
+         * @param count of type int denotes the number of legal moves, at least 1.
+         * @return move of type int, one of moves.
+         */
+        int chooseMove(Position position, int[] moves, int count);
+    }
+
+    /**
+     * A class for the totals of a run.
+     */
+    public static class Result {
+        public long games;
+        public long plies;
+        public long draws;
+        public final long[] wins = new long[2];
+        public long nanos;
+
+        /**
+         * A method to add another Result's totals to this one's.
+         * @param other of type Result
+         */
+        public void add(Result other) {
+            games += other.games;
+            plies += other.plies;
+            draws += other.draws;
+            wins[0] += other.wins[0];
+            wins[1] += other.wins[1];
+        }
+
+        /**
+         * A method to get the number of games played per second.
+         * @return gamesPerSecond of type double
+         */
+        public double gamesPerSecond() {
+            return nanos == 0 ? 0 : games * 1e9 / nanos;
+        }
+
+        /**
+         * A method to get the average length of a game.
+         * @return plies of type double
+         */
+        public double averageLength() {
+            return games == 0 ? 0 : (double) plies / games;
+        }
+
+        /**
+         * A method to get the share of games a Player won.
+         * @param playerNumber of type int
+         * @return winRate of type double, between 0 and 1.
+         */
+        public double winRate(int playerNumber) {
+            return games == 0 ? 0 : (double) wins[playerNumber] / games;
+        }
+
+        /**
+         * Override of toString in Object.
+         * @return result of type String
+         */
+        @Override
+        public String toString() {
+            return String.format("%d games, %.0f games/s, %.1f plies on average, Player 0 %.1f%%, Player 1 %.1f%%,"
+                    + " draws %.1f%%", games, gamesPerSecond(), averageLength(), 100 * winRate(0),
+                    100 * winRate(1), games == 0 ? 0 : 100.0 * draws / games);
+        }
+    }
+
+    /**
+     * A method for a policy that plays uniformly random moves.
+     * @return policies of type LongFunction<Policy>, which makes a Policy from a random seed.
+     */
+    public static LongFunction<Policy> random() {
+        return seed -> {
+            SplittableRandom random = new SplittableRandom(seed);
+            return (position, moves, count) -> moves[random.nextInt(count)];
+        };
+    }
+
+    /**
+     * A method for a policy that captures the most valuable Piece it can, the Lion above all, and otherwise plays
+     * a random move.
+     * @return policies of type LongFunction<Policy>, which makes a Policy from a random seed.
+     */
+    public static LongFunction<Policy> greedyCapture() {
+        return seed -> {
+            SplittableRandom random = new SplittableRandom(seed);
+            return (position, moves, count) -> {
+                int best = moves[random.nextInt(count)];
+                int bestValue = 0;
+                for (int i = 0; i < count; i++) {
+                    int move = moves[i];
+                    int captured = Moves.isDrop(move) ? -1 : position.kindAt(Moves.to(move));
+                    if (captured >= 0 && CAPTURE_VALUES[captured] > bestValue) {
+                        bestValue = CAPTURE_VALUES[captured];
+                        best = move;
+                    }
+                }
+                return best;
+            };
+        };
+    }
+
+    /**
+     * A method for a policy that plays the best move of a Search to a fixed depth.
+     * @param depth of type int denotes the depth of the search.
+     * @param megabytes of type long denotes the size of each thread's TranspositionTable.
+     * @return policies of type LongFunction<Policy>, which makes a Policy from a random seed, used to choose among
+     * root moves with the best score, see Search.setRandom, so that shards do not all play the same game.
+     */
+    public static LongFunction<Policy> engine(int depth, long megabytes) {
+        return seed -> {
+            Search search = new Search(new TranspositionTable(megabytes));
+            search.setMaxDepth(depth);
+            search.setRandom(new SplittableRandom(seed));
+            return (position, moves, count) -> {
+                int move = search.findBestMove(position);
+                return move == 0 ? moves[0] : move;
+            };
+        };
+    }
+
+    /**
+     * A method to play games between two policies, split evenly across threads.
+     * @param games of type long denotes the number of games.
+     * @param policy0 of type LongFunction<Policy> denotes Player 0's policy.
+     * @param policy1 of type LongFunction<Policy> denotes Player 1's policy.
+     * @param maxPlies of type int denotes the move cap of a game.
+     * @param threads of type int denotes the number of threads.
+     * @param seed of type long denotes the seed the policies' seeds are derived from.
+     * @return result of type Result
+     * @throws InterruptedException if interrupted while waiting, after stopping the threads.
+     */
+    public static Result run(long games, LongFunction<Policy> policy0, LongFunction<Policy> policy1,
+            int maxPlies, int threads, long seed) throws InterruptedException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("There must be at least one thread.");
+        }
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Result>> shards = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            long shardGames = games / threads + (t < games % threads ? 1 : 0);
+            long shardSeed = seed + 0x9E3779B97F4A7C15L * (t + 1);
+            shards.add(pool.submit(() -> playShard(shardGames, policy0.apply(shardSeed),
+                    policy1.apply(~shardSeed), maxPlies)));
+        }
+        Result result = new Result();
+        try {
+            for (Future<Result> shard : shards) {
+                result.add(shard.get());
+            }
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException("A self-play thread failed.", e.getCause());
+        }
+        finally {
+            // Interrupts the shards still playing if one failed or this thread was interrupted.
+            pool.shutdownNow();
+        }
+        result.nanos = System.nanoTime() - start;
+        return result;
+    }
+
+    /**
+     * A method to play one thread's games, stopping early if the thread is interrupted.
+     * @param games of type long denotes the number of games.
+     * @param policy0 of type Policy denotes Player 0's policy.
+     * @param policy1 of type Policy denotes Player 1's policy.
+     * @param maxPlies of type int denotes the move cap of a game.
+     * @return result of type Result
+     */
+    private static Result playShard(long games, Policy policy0, Policy policy1, int maxPlies) {
+        Result result = new Result();
+        Position position = new Position();
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        long[] hashHistory = new long[Game.HISTORY];
+        boolean[] checkHistory = new boolean[Game.HISTORY];
+        for (long game = 0; game < games && !Thread.currentThread().isInterrupted(); game++) {
+            Game.copyStartPosition(position);
+            hashHistory[0] = position.getHash();
+            checkHistory[0] = false;
+            int winner = -1;
+            int ply = 0;
+            for (; ply < maxPlies; ply++) {
+                int side = position.getSideToMove();
+                int count = MoveGenerator.generateAll(position, side, moves, 0);
+                if (count == 0) {
+                    winner = 1 - side;
+                    break;
+                }
+                position.makeMove((side == 0 ? policy0 : policy1).chooseMove(position, moves, count));
+                if (position.getWinner() >= 0) {
+                    winner = position.getWinner();
+                    ply++;
+                    break;
+                }
+                int historyCount = ply + 2;
+                hashHistory[(ply + 1) & (Game.HISTORY - 1)] = position.getHash();
+                checkHistory[(ply + 1) & (Game.HISTORY - 1)] = position.isLionInDanger(1 - side);
+                int repetition = Game.findRepetition(hashHistory, checkHistory, historyCount,
+                        Math.max(0, historyCount - Game.HISTORY), 1 - side);
+                if (repetition != Game.NO_REPETITION) {
+                    winner = repetition == Game.REPETITION_DRAW ? -1 : repetition;
+                    ply++;
+                    break;
+                }
+            }
+            result.games++;
+            result.plies += ply;
+            if (winner < 0) {
+                result.draws++;
+            }
+            else {
+                result.wins[winner]++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A method to make a policy from its name: random, greedy, or engine:N for a Search to depth N.
+     * @param name of type String
+     * @return policies of type LongFunction<Policy>
+     */
+    static LongFunction<Policy> policy(String name) {
+        if (name.equals("random")) {
+            return random();
+        }
+        if (name.equals("greedy")) {
+            return greedyCapture();
+        }
+        if (name.startsWith("engine:")) {
+            return engine(Integer.parseInt(name.substring("engine:".length())), 4);
+        }
+        throw new IllegalArgumentException("There is no policy called " + name + ".");
+    }
+
+    /**
+     * Plays games and prints the totals. The arguments are the number of games (default 100000), Player 0's and
+     * Player 1's policies (default random), the move cap (default 200) and the number of threads (default all).
+     * @param args of type String[]
+     * @throws InterruptedException if interrupted while the games are played.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 100_000;
+        LongFunction<Policy> policy0 = policy(args.length > 1 ? args[1] : "random");
+        LongFunction<Policy> policy1 = policy(args.length > 2 ? args[2] : "random");
+        int maxPlies = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        System.out.println(run(games, policy0, policy1, maxPlies, threads, 1));
+    }
+}
@@ -9,6 +9,8 @@ import java.util.Objects;
 public class Square {
     private Game game;
     private int row, col;
+    // Bit index of this Square in the Game's Position.
+    private int index;
     // Square and Piece have the other as an attribute and are constructed with the other respectively,
     // so possible updating must be remembered to be done in both.
     private Piece piece;
@@ -25,6 +27,7 @@ public class Square {
         this.game = game;
         this.row = row;
         this.col = col;
+        this.index = Position.index(row, col);
         this.piece = null; // Default null
 
         if (game != null) {
@@ -45,6 +48,7 @@ public class Square {
         this.game = game;
         this.row = row;
         this.col = col;
+        this.index = Position.index(row, col);
         this.piece = null; // Default null
         this.promotesPlayer = promotesPlayer;
 
@@ -57,69 +61,25 @@ public class Square {
      * A method to initialise Pieces and place them on their starting positions. Only called when if not a null Game.
      */
     private void fillSquare() {
-        // Initialise Piece and place on starting position
-        // p0 row 0
-        if (row == 0) {
-            if (col == 0) {
-                piece = new Cat(game.getPlayer(0), this);
-            }
-            else if (col == 1) {
-                piece = new Dog(game.getPlayer(0), this);
-            }
-            else if (col == 2) {
-                piece = new Lion(game.getPlayer(0), this);
-            }
-            else if (col == 3) {
-                piece = new Dog(game.getPlayer(0), this);
-            }
-            else {
-                piece = new Cat(game.getPlayer(0), this);
-            }
+        // Initialise Piece and place on starting position, as laid out in Game's starting tables.
+        int kind = Game.startKind(index);
+        if (kind < 0) {
+            return;
         }
-
-        // p0 row 2
-        if (row == 2) {
-            if (col == 1) {
-                piece = new Chick(game.getPlayer(0), this);
-            }
-            else if (col == 2) {
-                piece = new Chick(game.getPlayer(0), this);
-            }
-            else if (col == 3) { // Because there is 2,0 and 2,4 - explicitly state that it's 2,3
-                piece = new Chick(game.getPlayer(0), this);
-            }
-        }
-
-        // p1 row 3
-        if (row == 3) {
-            if (col == 1) {
-                piece = new Chick(game.getPlayer(1), this);
-            }
-            else if (col == 2) {
-                piece = new Chick(game.getPlayer(1), this);
-            }
-            else if (col == 3) { // because there is 3,0 and 3,4 - explicitly state that it's 3,3
-                piece = new Chick(game.getPlayer(1), this);
-            }
-        }
-
-        // p1 row 5
-        if (row == 5) {
-            if (col == 0) {
-                piece = new Cat(game.getPlayer(1), this);
-            }
-            else if (col == 1) {
-                piece = new Dog(game.getPlayer(1), this);
-            }
-            else if (col == 2) {
-                piece = new Lion(game.getPlayer(1), this);
-            }
-            else if (col == 3) {
-                piece = new Dog(game.getPlayer(1), this);
-            }
-            else {
-                piece = new Cat(game.getPlayer(1), this);
-            }
+        Player owner = game.getPlayer(Game.startOwner(index));
+        switch (kind) {
+            case Position.CHICK:
+                piece = new Chick(owner, this);
+                break;
+            case Position.CAT:
+                piece = new Cat(owner, this);
+                break;
+            case Position.DOG:
+                piece = new Dog(owner, this);
+                break;
+            default:
+                piece = new Lion(owner, this);
+                break;
         }
     }
 
@@ -144,6 +104,40 @@ public class Square {
      */
     public void setPiece(Piece piece) {
         this.piece = piece;
+        syncPosition();
+    }
+
+    /**
+     * A setter for piece that leaves the Game's Position alone, for Game.reset, which restores the whole
+     * Position at once.
+     * @param piece of type Piece denotes the Piece that is placed on this Square, or null.
+     */
+    void restorePiece(Piece piece) {
+        this.piece = piece;
+    }
+
+    /**
+     * A standard setter for promotesPlayer.
+     * @param promotesPlayer of type Player denotes the Player whose Piece is promoted when placed on this Square.
+     */
+    void setPromotesPlayer(Player promotesPlayer) {
+        this.promotesPlayer = promotesPlayer;
+    }
+
+    /**
+     * A method to write this Square's Piece into the Game's Position, so that the bitboard view matches the
+     * object graph. Does nothing in a null Game, or for a Square that is not on the Game's gameBoard, which has
+     * no place in the Position.
+     */
+    void syncPosition() {
+        if (game == null || game.getSquare(index) != this) {
+            return;
+        }
+        Position position = game.getPosition();
+        position.clear(index);
+        if (piece != null) {
+            position.put(index, piece.getKind(), piece.getOwner().getPlayerNumber(), piece.isPromoted());
+        }
     }
 
     /**
@@ -172,6 +166,16 @@ public class Square {
         }
     }
 
+    /**
+     * A method to assert whether a Square is on the last row in a Player's direction, where a Chick could never
+     * move again and so cannot be dropped.
+     * @param player of type Player denotes the player for which this is asserted.
+     * @return true if the Square is on the Player's last row.
+     */
+    public boolean isLastRow(Player player) {
+        return row == (player.getPlayerNumber() == 0 ? Game.HEIGHT - 1 : 0);
+    }
+
     /**
      * A standard getter for Game.
      * @return game of type Game
@@ -193,6 +197,7 @@ public class Square {
      * @return true if occupied.
      */
     public boolean isOccupied() {
+        // The object graph and the Position are kept in step, so the field answers as well as the bitboard.
         return piece != null;
     }
 
@@ -212,6 +217,14 @@ public class Square {
         return col;
     }
 
+    /**
+     * A getter for this Square's bit index in the Game's Position.
+     * @return index of type int
+     */
+    public int getIndex() {
+        return index;
+    }
+
     /**
      * A method to assert one Square equals another.
      * @param o of type Object represents a Square.
@@ -0,0 +1,439 @@
+package animalchess;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A class for an endgame tablebase: the solved value of every position with both Lions on the board and a fixed
+ * set of other Pieces, each of which may be on the board for either Player, promoted or not, or in either hand.
+ * A value is a byte from the point of view of the side to move: n &gt; 0 wins, capturing the Lion on the n-th ply
+ * (1 means at once); -n loses in n plies (1 means there is no legal move); 0 is a draw, or a result more than
+ * MAX_DISTANCE plies away.
+ * <p>
+ * generate solves the positions by retrograde analysis in passes: pass k finds the wins in k plies, those with a
+ * move to a loss in k - 1, and the losses in k plies, those whose moves all lead to wins in fewer than k. Each pass
+ * is split across threads, and the values are written straight into a memory-mapped file, which open maps again
+ * for probing. A probe is one index computation and one read.
+ * @version 1
+ */
+public class Tablebase implements Closeable {
+    public static final int MAX_DISTANCE = 127;
+
+    private static final int MAGIC = 0x41435442; // "ACTB"
+    private static final int HEADER_BYTES = 16;
+    private static final int MAX_PIECES = 2;
+    // A Piece is on a Square for an owner, promoted or not (codes 0 to 119), or in a hand (HAND_CODE + owner).
+    private static final int HAND_CODE = Position.SQUARES * 4;
+    private static final int CODES = HAND_CODE + 2;
+    private static final int LION_CODES = Position.SQUARES * Position.SQUARES;
+    private static final int BLOCK = 4096;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer table;
+    // The kinds of the Pieces other than the Lions, in increasing order.
+    private final int[] kinds;
+    private final int size;
+    // A move buffer per probing thread, so that bestMove allocates nothing.
+    private final ThreadLocal<int[]> moveBuffers = ThreadLocal.withInitial(() -> new int[MoveGenerator.MAX_MOVES]);
+
+    /**
+     * A constructor for the class Tablebase, over an already mapped file.
+     * @param channel of type FileChannel denotes the open file.
+     * @param table of type MappedByteBuffer denotes the mapped values, after the header.
+     * @param kinds of type int[] denotes the kinds of the Pieces other than the Lions, in increasing order.
+     */
+    private Tablebase(FileChannel channel, MappedByteBuffer table, int[] kinds) {
+        this.channel = channel;
+        this.table = table;
+        this.kinds = kinds;
+        this.size = size(kinds.length);
+    }
+
+    /**
+     * A method to solve every position of a set of Pieces and write the tablebase to a file. The file is closed if
+     * generation fails.
+     * @param path of type Path denotes the file, which is created or overwritten.
+     * @param pieceKinds of type int[] denotes the kinds of the Pieces besides the two Lions, at most MAX_PIECES,
+     *                   e.g. {Position.CHICK} or {Position.CHICK, Position.CAT}.
+     * @param threads of type int denotes the number of threads to solve with.
+     * @return tablebase of type Tablebase, open for probing.
+     * @throws IOException if the file cannot be written.
+     */
+    public static Tablebase generate(Path path, int[] pieceKinds, int threads) throws IOException {
+        int[] kinds = checkKinds(pieceKinds);
+        int size = size(kinds.length);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(kinds.length);
+            for (int kind : kinds) {
+                header.putInt(kind);
+            }
+            header.clear();
+            channel.write(header, 0);
+            MappedByteBuffer table = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES, size);
+            Tablebase tablebase = new Tablebase(channel, table, kinds);
+
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            try {
+                for (int distance = 1; distance <= MAX_DISTANCE; distance++) {
+                    if (tablebase.solvePass(distance, pool, threads) == 0 && distance > 1) {
+                        break;
+                    }
+                }
+            }
+            finally {
+                pool.shutdown();
+            }
+            table.force();
+            return tablebase;
+        }
+        catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * A method to open a tablebase written by generate.
+     * @param path of type Path denotes the file.
+     * @return tablebase of type Tablebase
+     * @throws IOException if the file cannot be read or is not a tablebase.
+     */
+    public static Tablebase open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        channel.read(header, 0);
+        header.flip();
+        if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+            channel.close();
+            throw new IOException("This is not a tablebase.");
+        }
+        int[] kinds = new int[header.getInt()];
+        for (int i = 0; i < kinds.length; i++) {
+            kinds[i] = header.getInt();
+        }
+        MappedByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, size(kinds.length));
+        return new Tablebase(channel, table, checkKinds(kinds));
+    }
+
+    /**
+     * A method to get the value of a position.
+     * @param position of type Position denotes the position, see covers.
+     * @return value of type int, see the class description.
+     */
+    public int probe(Position position) {
+        int index = index(position);
+        if (index < 0) {
+            throw new IllegalArgumentException("This tablebase does not cover this position.");
+        }
+        return table.get(index);
+    }
+
+    /**
+     * A method to assert whether a position has exactly this tablebase's Pieces, with both Lions on the board.
+     * @param position of type Position
+     * @return true if the position can be probed.
+     */
+    public boolean covers(Position position) {
+        return index(position) >= 0;
+    }
+
+    /**
+     * A method to find a move that keeps the best value for the side to move: the fastest win, the slowest loss,
+     * or else a draw.
+     * @param position of type Position denotes the position, see covers. It is left unchanged.
+     * @return move of type int, see Moves, or 0 if there is no move.
+     */
+    public int bestMove(Position position) {
+        probe(position);
+        int[] moves = moveBuffers.get();
+        int count = MoveGenerator.generateAll(position, position.getSideToMove(), moves, 0);
+        int bestMove = 0;
+        int bestRank = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            position.makeMove(moves[i]);
+            int rank = position.getWinner() >= 0 ? Integer.MAX_VALUE : rank(-table.get(index(position)));
+            position.unmakeMove();
+            if (rank > bestRank) {
+                bestRank = rank;
+                bestMove = moves[i];
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * A method to order values from the mover's point of view: faster wins first, then draws, then slower losses.
+     * @param value of type int denotes the value after the move, negated to the mover's point of view.
+     * @return rank of type int
+     */
+    private static int rank(int value) {
+        if (value > 0) {
+            return 2 * MAX_DISTANCE - value;
+        }
+        return value < 0 ? -MAX_DISTANCE - value : 0;
+    }
+
+    /**
+     * A method to run one pass of the retrograde analysis, split across threads.
+     * @param distance of type int denotes the distance of the values found in this pass.
+     * @param pool of type ExecutorService denotes the threads.
+     * @param threads of type int denotes the number of tasks to split the pass into.
+     * @return count of type long, the number of positions solved in this pass.
+     * @throws IOException if a thread fails.
+     */
+    private long solvePass(int distance, ExecutorService pool, int threads) throws IOException {
+        AtomicLong solved = new AtomicLong();
+        List<Future<?>> tasks = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            int first = t;
+            tasks.add(pool.submit(() -> {
+                Position position = new Position();
+                int[] moves = new int[MoveGenerator.MAX_MOVES];
+                long count = 0;
+                // Threads take interleaved blocks, so that each gets a similar mix of positions.
+                for (long block = first; block * BLOCK < size; block += threads) {
+                    int end = (int) Math.min(size, (block + 1) * BLOCK);
+                    for (int index = (int) (block * BLOCK); index < end; index++) {
+                        if (table.get(index) == 0 && solve(index, distance, position, moves)) {
+                            count++;
+                        }
+                    }
+                }
+                solved.addAndGet(count);
+            }));
+        }
+        for (Future<?> task : tasks) {
+            try {
+                task.get();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Generation was interrupted.", e);
+            }
+            catch (ExecutionException e) {
+                throw new IOException("A generation thread failed.", e.getCause());
+            }
+        }
+        return solved.get();
+    }
+
+    /**
+     * A method to try to solve one position in a pass, reading only values found in earlier passes.
+     * @param index of type int denotes the position's index.
+     * @param distance of type int denotes the distance of the values found in this pass.
+     * @param position of type Position denotes a scratch Position.
+     * @param moves of type int[] denotes a scratch move buffer.
+     * @return true if the position was solved.
+     */
+    private boolean solve(int index, int distance, Position position, int[] moves) {
+        if (!decode(index, position)) {
+            return false;
+        }
+        int count = MoveGenerator.generateAll(position, position.getSideToMove(), moves, 0);
+        boolean allLose = true;
+        for (int i = 0; i < count; i++) {
+            position.makeMove(moves[i]);
+            int value = position.getWinner() >= 0 ? Integer.MIN_VALUE : table.get(index(position));
+            position.unmakeMove();
+            if (value == Integer.MIN_VALUE) {
+                // The move captures the Lion.
+                if (distance == 1) {
+                    table.put(index, (byte) 1);
+                    return true;
+                }
+                allLose = false;
+            }
+            else if (value == -(distance - 1) && distance > 1) {
+                table.put(index, (byte) distance);
+                return true;
+            }
+            else if (value <= 0 || value >= distance) {
+                // A draw so far, a loss for the opponent, or a value found in this pass.
+                allLose = false;
+            }
+        }
+        if (allLose) {
+            table.put(index, (byte) -distance);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * A method to compute the index of a position, with the codes of Pieces of the same kind in increasing order.
+     * They are found in that order, Squares from the lowest index and then the hands, so no sorting is needed.
+     * @param position of type Position
+     * @return index of type int, or -1 if this tablebase does not cover the position.
+     */
+    int index(Position position) {
+        int lions = position.getKindMask(Position.LION);
+        int lion0 = lions & position.getOwnerMask(0);
+        int lion1 = lions & position.getOwnerMask(1);
+        if (position.getWinner() >= 0 || Integer.bitCount(lion0) != 1 || Integer.bitCount(lion1) != 1
+                || position.getHandCount(0, Position.LION) + position.getHandCount(1, Position.LION) != 0
+                || countPieces(position) != kinds.length) {
+            return -1;
+        }
+
+        long index = (long) (Integer.numberOfTrailingZeros(lion0) * Position.SQUARES
+                + Integer.numberOfTrailingZeros(lion1)) * 2 + position.getSideToMove();
+        for (int k = 0; k < kinds.length; ) {
+            int kind = kinds[k];
+            int expected = 0;
+            while (k + expected < kinds.length && kinds[k + expected] == kind) {
+                expected++;
+            }
+            int found = 0;
+            int pieces = position.getKindMask(kind);
+            while (pieces != 0) {
+                int square = Integer.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                if (found == expected) {
+                    return -1;
+                }
+                index = index * CODES + (square * 2 + position.ownerAt(square)) * 2
+                        + (position.isPromoted(square) ? 1 : 0);
+                found++;
+            }
+            for (int owner = 0; owner < 2; owner++) {
+                for (int n = position.getHandCount(owner, kind); n > 0; n--) {
+                    if (found == expected) {
+                        return -1;
+                    }
+                    index = index * CODES + HAND_CODE + owner;
+                    found++;
+                }
+            }
+            if (found != expected) {
+                return -1;
+            }
+            k += expected;
+        }
+        return (int) index;
+    }
+
+    /**
+     * A method to count the Pieces other than Lions, on the board and in hand.
+     * @param position of type Position
+     * @return count of type int
+     */
+    private static int countPieces(Position position) {
+        int count = Integer.bitCount(position.getOccupied() & ~position.getKindMask(Position.LION));
+        for (int owner = 0; owner < 2; owner++) {
+            for (int kind = 0; kind < Position.LION; kind++) {
+                count += position.getHandCount(owner, kind);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * A method to set up the position of an index.
+     * @param index of type int
+     * @param position of type Position denotes the Position to be overwritten.
+     * @return true if the index is a valid position in its canonical form.
+     */
+    private boolean decode(int index, Position position) {
+        position.clearAll();
+        int[] codes = new int[kinds.length];
+        long rest = index;
+        for (int i = kinds.length - 1; i >= 0; i--) {
+            codes[i] = (int) (rest % CODES);
+            rest /= CODES;
+        }
+        int side = (int) (rest & 1);
+        int lion1 = (int) (rest >> 1) % Position.SQUARES;
+        int lion0 = (int) (rest >> 1) / Position.SQUARES;
+        if (lion0 == lion1) {
+            return false;
+        }
+        position.put(lion0, Position.LION, 0, false);
+        position.put(lion1, Position.LION, 1, false);
+
+        for (int i = 0; i < kinds.length; i++) {
+            int kind = kinds[i];
+            if (i > 0 && kinds[i - 1] == kind && codes[i - 1] > codes[i]) {
+                // Only the form with codes in increasing order is used.
+                return false;
+            }
+            int code = codes[i];
+            if (code >= HAND_CODE) {
+                position.addToHand(code - HAND_CODE, kind);
+                continue;
+            }
+            int square = code >> 2;
+            boolean promoted = (code & 1) != 0;
+            if (position.isOccupied(square)
+                    || (promoted && kind != Position.CHICK && kind != Position.CAT)) {
+                return false;
+            }
+            position.put(square, kind, code >> 1 & 1, promoted);
+        }
+        position.setSideToMove(side);
+        return true;
+    }
+
+    /**
+     * A method to check and sort the kinds of a tablebase.
+     * @param pieceKinds of type int[]
+     * @return kinds of type int[], sorted.
+     */
+    private static int[] checkKinds(int[] pieceKinds) {
+        if (pieceKinds.length > MAX_PIECES) {
+            throw new IllegalArgumentException("A tablebase has at most " + MAX_PIECES + " pieces besides the Lions.");
+        }
+        int[] kinds = pieceKinds.clone();
+        Arrays.sort(kinds);
+        for (int kind : kinds) {
+            if (kind < Position.CHICK || kind >= Position.LION) {
+                throw new IllegalArgumentException("A tablebase's pieces must be Chicks, Cats or Dogs.");
+            }
+        }
+        return kinds;
+    }
+
+    /**
+     * A method to get the number of indices of a tablebase.
+     * @param pieces of type int denotes the number of Pieces besides the Lions.
+     * @return size of type int
+     */
+    private static int size(int pieces) {
+        long size = (long) LION_CODES * 2;
+        for (int i = 0; i < pieces; i++) {
+            size *= CODES;
+        }
+        return (int) size;
+    }
+
+    /**
+     * A getter for the kinds of the Pieces besides the Lions.
+     * @return kinds of type int[], in increasing order.
+     */
+    public int[] getKinds() {
+        return kinds.clone();
+    }
+
+    /**
+     * A method to close the file.
+     * @throws IOException if the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,220 @@
+package animalchess;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A class for a fixed-size transposition table of search results, keyed by Position.getHash.
+ * Entries live off-heap in direct ByteBuffers, so even a table of several GB adds nothing for the garbage
+ * collector to trace, and may be shared by any number of search threads without locks.
+ * Each entry is 16 bytes: the packed data (move, score, depth, bound and age) and the key XORed with the data.
+ * A reader only accepts an entry whose two words XOR back to its key, so an entry torn by two threads writing at
+ * once reads as a miss rather than as a wrong result.
+ * Entries are grouped in buckets of 4, one cache line, and a new entry replaces the entry of the same key or else
+ * the one of the bucket that is oldest and shallowest.
+ * @version 1
+ */
+public class TranspositionTable {
+    public static final int BOUND_EXACT = 1;
+    public static final int BOUND_LOWER = 2;
+    public static final int BOUND_UPPER = 3;
+
+    private static final int ENTRY_BYTES = 16;
+    private static final int BUCKET_ENTRIES = 4;
+    private static final int BUCKET_BYTES = ENTRY_BYTES * BUCKET_ENTRIES;
+    // Each direct ByteBuffer holds at most 2^30 bytes, 2^24 buckets.
+    private static final int CHUNK_BUCKET_BITS = 24;
+
+    private static final int SCORE_SHIFT = 16;
+    private static final int DEPTH_SHIFT = 32;
+    private static final int BOUND_SHIFT = 40;
+    private static final int AGE_SHIFT = 48;
+
+    // Opaque access keeps each 8-byte word untorn and visible to other threads without fences.
+    private static final VarHandle LONGS =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final ByteBuffer[] chunks;
+    private final long bucketMask;
+    private final int chunkBucketMask;
+    private final int chunkBucketBits;
+    private int age;
+
+    /**
+     * A constructor for the class TranspositionTable.
+     * @param megabytes of type long denotes the most memory to use, rounded down to a power of two buckets.
+     */
+    public TranspositionTable(long megabytes) {
+        long buckets = Long.highestOneBit(Math.max(1, megabytes * 1024 * 1024 / BUCKET_BYTES));
+        this.bucketMask = buckets - 1;
+        this.chunkBucketBits = Math.min(CHUNK_BUCKET_BITS, Long.numberOfTrailingZeros(buckets));
+        this.chunkBucketMask = (1 << chunkBucketBits) - 1;
+
+        this.chunks = new ByteBuffer[(int) (buckets >>> chunkBucketBits)];
+        int chunkBytes = BUCKET_BYTES << chunkBucketBits;
+        for (int i = 0; i < chunks.length; i++) {
+            // Aligned to the cache line so that a bucket never straddles two.
+            chunks[i] = ByteBuffer.allocateDirect(chunkBytes + BUCKET_BYTES).alignedSlice(BUCKET_BYTES)
+                    .order(ByteOrder.nativeOrder());
+        }
+    }
+
+    /**
+     * A method to look up a Position.
+     * @param key of type long denotes the Position's hash.
+     * @return data of type long, to be read with move, score, depth and bound, or 0 if there is no entry.
+     */
+    public long probe(long key) {
+        ByteBuffer chunk = chunkOf(key);
+        int offset = offsetOf(key);
+        for (int i = 0; i < BUCKET_ENTRIES; i++, offset += ENTRY_BYTES) {
+            long data = (long) LONGS.getOpaque(chunk, offset + 8);
+            long check = (long) LONGS.getOpaque(chunk, offset);
+            if (data != 0 && (check ^ data) == key) {
+                return data;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * A method to store the result of searching a Position.
+     * @param key of type long denotes the Position's hash.
+     * @param move of type int denotes the best move found, or 0 if none.
+     * @param score of type int denotes the score, between Short.MIN_VALUE and Short.MAX_VALUE.
+     * @param depth of type int denotes the depth searched, between 0 and 255.
+     * @param bound of type int denotes whether score is exact, a lower bound or an upper bound.
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        ByteBuffer chunk = chunkOf(key);
+        int bucket = offsetOf(key);
+        int victim = bucket;
+        int victimWorth = Integer.MAX_VALUE;
+
+        for (int i = 0, offset = bucket; i < BUCKET_ENTRIES; i++, offset += ENTRY_BYTES) {
+            long data = (long) LONGS.getOpaque(chunk, offset + 8);
+            long check = (long) LONGS.getOpaque(chunk, offset);
+            if (data == 0) {
+                victim = offset;
+                break;
+            }
+            if ((check ^ data) == key) {
+                // Same Position: keep a deeper result from this search unless the new one is exact.
+                if (bound != BOUND_EXACT && age(data) == age && depth(data) > depth) {
+                    return;
+                }
+                if (move == 0) {
+                    move = move(data);
+                }
+                victim = offset;
+                break;
+            }
+            // Entries from earlier searches are worth less the older they are.
+            int worth = depth(data) - 8 * ((age - age(data)) & 0xFF);
+            if (worth < victimWorth) {
+                victimWorth = worth;
+                victim = offset;
+            }
+        }
+
+        long data = (move & 0xFFFFL)
+                | (score & 0xFFFFL) << SCORE_SHIFT
+                | (long) (depth & 0xFF) << DEPTH_SHIFT
+                | (long) bound << BOUND_SHIFT
+                | (long) age << AGE_SHIFT;
+        LONGS.setOpaque(chunk, victim + 8, data);
+        LONGS.setOpaque(chunk, victim, key ^ data);
+    }
+
+    /**
+     * A method to be called before each new search, so that entries from earlier searches are replaced first.
+     */
+    public void newSearch() {
+        age = (age + 1) & 0xFF;
+    }
+
+    /**
+     * A method to empty the table.
+     */
+    public void clear() {
+        for (ByteBuffer chunk : chunks) {
+            for (int offset = 0; offset < chunk.capacity(); offset += 8) {
+                LONGS.setOpaque(chunk, offset, 0L);
+            }
+        }
+        age = 0;
+    }
+
+    /**
+     * A getter for the number of entries the table can hold.
+     * @return capacity of type long
+     */
+    public long getCapacity() {
+        return (bucketMask + 1) * BUCKET_ENTRIES;
+    }
+
+    /**
+     * A method to get the chunk a key's bucket is in.
+     * @param key of type long denotes the Position's hash.
+     * @return chunk of type ByteBuffer
+     */
+    private ByteBuffer chunkOf(long key) {
+        return chunks[(int) ((key & bucketMask) >>> chunkBucketBits)];
+    }
+
+    /**
+     * A method to get the byte offset of a key's bucket within its chunk.
+     * @param key of type long denotes the Position's hash.
+     * @return offset of type int
+     */
+    private int offsetOf(long key) {
+        return ((int) key & chunkBucketMask) * BUCKET_BYTES;
+    }
+
+    /**
+     * A getter for the best move of an entry.
+     * @param data of type long, as returned by probe.
+     * @return move of type int, see Moves, or 0 if none.
+     */
+    public static int move(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    /**
+     * A getter for the score of an entry.
+     * @param data of type long, as returned by probe.
+     * @return score of type int
+     */
+    public static int score(long data) {
+        return (short) (data >>> SCORE_SHIFT);
+    }
+
+    /**
+     * A getter for the depth of an entry.
+     * @param data of type long, as returned by probe.
+     * @return depth of type int
+     */
+    public static int depth(long data) {
+        return (int) (data >>> DEPTH_SHIFT & 0xFF);
+    }
+
+    /**
+     * A getter for the bound of an entry.
+     * @param data of type long, as returned by probe.
+     * @return bound of type int, e.g. BOUND_EXACT.
+     */
+    public static int bound(long data) {
+        return (int) (data >>> BOUND_SHIFT & 0x3);
+    }
+
+    /**
+     * A getter for the age of an entry.
+     * @param data of type long, as returned by probe.
+     * @return age of type int
+     */
+    private static int age(long data) {
+        return (int) (data >>> AGE_SHIFT & 0xFF);
+    }
+}
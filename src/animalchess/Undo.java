@@ -0,0 +1,115 @@
+package animalchess;
+
+/**
+ * A class for the compact undo record of a move, packed into a long, as pushed by Position.makeMove and
+ * Game.makeMove. Bits 0-15 hold the move (see Moves), bits 16-18 the kind of Piece captured plus one
+ * (0 if nothing was captured), bit 19 whether the captured Piece was promoted, bit 20 whether the moving Piece
+ * was promoted before the move, bits 21-22 the winner's playerNumber plus one before the move, bit 23 the side
+ * to move before the move and bits 24-28 the index in hand of a dropped Piece.
+ * @version 1
+ */
+final class Undo {
+    private static final int MOVE_MASK = 0xFFFF;
+    private static final int CAPTURED_SHIFT = 16;
+    private static final long CAPTURED_PROMOTED = 1L << 19;
+    private static final long MOVER_PROMOTED = 1L << 20;
+    private static final int WINNER_SHIFT = 21;
+    private static final int SIDE_SHIFT = 23;
+    private static final int HAND_INDEX_SHIFT = 24;
+
+    /**
+     * Private constructor because Undo only has static methods.
+     */
+    private Undo() {
+    }
+
+    /**
+     * A method to pack an undo record.
+     * @param move of type int denotes the move made.
+     * @param capturedKind of type int denotes the kind of Piece captured, or -1.
+     * @param capturedPromoted of type boolean, true if the captured Piece was promoted.
+     * @param moverPromoted of type boolean, true if the moving Piece was promoted before the move.
+     * @param winner of type int denotes the winner's playerNumber before the move, or -1.
+     * @param side of type int denotes the side to move before the move.
+     * @param handIndex of type int denotes the index in hand of a dropped Piece, or 0.
+     * @return undo of type long
+     */
+    static long pack(int move, int capturedKind, boolean capturedPromoted, boolean moverPromoted, int winner,
+                     int side, int handIndex) {
+        long undo = (move & MOVE_MASK)
+                | (long) (capturedKind + 1) << CAPTURED_SHIFT
+                | (long) (winner + 1) << WINNER_SHIFT
+                | (long) side << SIDE_SHIFT
+                | (long) handIndex << HAND_INDEX_SHIFT;
+        if (capturedPromoted) {
+            undo |= CAPTURED_PROMOTED;
+        }
+        if (moverPromoted) {
+            undo |= MOVER_PROMOTED;
+        }
+        return undo;
+    }
+
+    /**
+     * A getter for the move made.
+     * @param undo of type long
+     * @return move of type int
+     */
+    static int move(long undo) {
+        return (int) (undo & MOVE_MASK);
+    }
+
+    /**
+     * A getter for the kind of Piece captured.
+     * @param undo of type long
+     * @return capturedKind of type int, or -1 if nothing was captured
+     */
+    static int capturedKind(long undo) {
+        return (int) (undo >>> CAPTURED_SHIFT & 0x7) - 1;
+    }
+
+    /**
+     * A getter for whether the captured Piece was promoted.
+     * @param undo of type long
+     * @return true if it was promoted
+     */
+    static boolean capturedPromoted(long undo) {
+        return (undo & CAPTURED_PROMOTED) != 0;
+    }
+
+    /**
+     * A getter for whether the moving Piece was promoted before the move.
+     * @param undo of type long
+     * @return true if it was promoted
+     */
+    static boolean moverPromoted(long undo) {
+        return (undo & MOVER_PROMOTED) != 0;
+    }
+
+    /**
+     * A getter for the winner before the move.
+     * @param undo of type long
+     * @return playerNumber of type int, or -1 if there was none
+     */
+    static int winner(long undo) {
+        return (int) (undo >>> WINNER_SHIFT & 0x3) - 1;
+    }
+
+    /**
+     * A getter for the side to move before the move.
+     * @param undo of type long
+     * @return playerNumber of type int
+     */
+    static int side(long undo) {
+        return (int) (undo >>> SIDE_SHIFT & 0x1);
+    }
+
+    /**
+     * A getter for the index in hand of a dropped Piece.
+     * @param undo of type long
+     * @return handIndex of type int
+     */
+    static int handIndex(long undo) {
+        return (int) (undo >>> HAND_INDEX_SHIFT & 0x1F);
+    }
+}
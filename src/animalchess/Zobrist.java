@@ -0,0 +1,73 @@
+package animalchess;
+
+/**
+ * A class for the random keys of Zobrist hashing, used by Position to keep a 64-bit hash of itself up to date.
+ * A Position's hash is the XOR of one key per Piece on the board (by kind, promoted, owner and Square), one key
+ * per (owner, kind, count) of the Pieces in hand and a key for Player 1 being the side to move.
+ * The keys come from a fixed seed, so hashes are the same in every run and can be stored.
+ * @version 1
+ */
+final class Zobrist {
+    // Enough for every Piece of one kind to be in one hand.
+    static final int MAX_HAND_COUNT = 16;
+
+    // Indexed by ((kind * 2 + promoted) * 2 + owner) * SQUARES + index.
+    private static final long[] PIECE_KEYS = new long[Position.KINDS * 2 * 2 * Position.SQUARES];
+    // Indexed by (owner * KINDS + kind) * MAX_HAND_COUNT + count. The key for a count of 0 is 0.
+    private static final long[] HAND_KEYS = new long[2 * Position.KINDS * MAX_HAND_COUNT];
+    static final long SIDE_KEY;
+
+    static {
+        long seed = 0x5EED_A11A_C4E5_5L;
+        for (int i = 0; i < PIECE_KEYS.length; i++) {
+            seed += 0x9E3779B97F4A7C15L;
+            PIECE_KEYS[i] = mix(seed);
+        }
+        for (int i = 0; i < HAND_KEYS.length; i++) {
+            seed += 0x9E3779B97F4A7C15L;
+            HAND_KEYS[i] = i % MAX_HAND_COUNT == 0 ? 0 : mix(seed);
+        }
+        seed += 0x9E3779B97F4A7C15L;
+        SIDE_KEY = mix(seed);
+    }
+
+    /**
+     * Private constructor because Zobrist only has static methods.
+     */
+    private Zobrist() {
+    }
+
+    /**
+     * The SplitMix64 finaliser, which turns a counter into a well-mixed random key.
+     * @param z of type long denotes the counter.
+     * @return key of type long
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * A getter for the key of a Piece on a Square.
+     * @param kind of type int denotes the kind of Piece.
+     * @param promoted of type boolean, true if the Piece is promoted.
+     * @param owner of type int denotes the owner's playerNumber.
+     * @param index of type int denotes the Square's bit index.
+     * @return key of type long
+     */
+    static long piece(int kind, boolean promoted, int owner, int index) {
+        return PIECE_KEYS[(((kind << 1 | (promoted ? 1 : 0)) << 1 | owner) * Position.SQUARES) + index];
+    }
+
+    /**
+     * A getter for the key of a number of Pieces of one kind in a Player's hand.
+     * @param owner of type int denotes the owner's playerNumber.
+     * @param kind of type int denotes the kind of Piece.
+     * @param count of type int denotes the number of Pieces of that kind in hand.
+     * @return key of type long
+     */
+    static long hand(int owner, int kind, int count) {
+        return HAND_KEYS[(owner * Position.KINDS + kind) * MAX_HAND_COUNT + count];
+    }
+}